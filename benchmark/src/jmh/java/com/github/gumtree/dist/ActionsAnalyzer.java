@@ -0,0 +1,117 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.io.ActionsIoUtils;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.TreeContext;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Generation of the edit script from the mappings of the classic matcher, and serialization of
+ * the trees and actions in each of the supported formats.
+ */
+public class ActionsAnalyzer {
+    @State(Scope.Benchmark)
+    public static class MatchedData {
+        @Setup
+        public void load() throws IOException {
+            TreePair pair = TreePair.load(refPath);
+            src = pair.src;
+            dst = pair.dst;
+            Matcher m = new CompositeMatchers.ClassicGumtree(src.getRoot(), dst.getRoot(), new MappingStore());
+            m.match();
+            mappings = m.getMappings();
+            actions = new ActionGenerator(src.getRoot(), dst.getRoot(), mappings).generate();
+        }
+
+        @Param({})
+        public String refPath;
+
+        public TreeContext src;
+
+        public TreeContext dst;
+
+        public MappingStore mappings;
+
+        public List<Action> actions;
+    }
+
+    @Benchmark
+    public List<Action> testActionGenerator(MatchedData d) {
+        return new ActionGenerator(d.src.getRoot(), d.dst.getRoot(), d.mappings).generate();
+    }
+
+    @Benchmark
+    public String testTreeToXml(MatchedData d) {
+        return TreeIoUtils.toXml(d.src).toString();
+    }
+
+    @Benchmark
+    public String testTreeToAnnotatedXml(MatchedData d) {
+        return TreeIoUtils.toAnnotatedXml(d.src, true, d.mappings).toString();
+    }
+
+    @Benchmark
+    public String testTreeToCompactXml(MatchedData d) {
+        return TreeIoUtils.toCompactXml(d.src).toString();
+    }
+
+    @Benchmark
+    public String testTreeToJson(MatchedData d) {
+        return TreeIoUtils.toJson(d.src).toString();
+    }
+
+    @Benchmark
+    public String testTreeToLisp(MatchedData d) {
+        return TreeIoUtils.toLisp(d.src).toString();
+    }
+
+    @Benchmark
+    public String testTreeToDot(MatchedData d) {
+        return TreeIoUtils.toDot(d.src).toString();
+    }
+
+    @Benchmark
+    public String testActionsToText(MatchedData d) throws IOException {
+        return ActionsIoUtils.toText(d.src, d.actions, d.mappings).toString();
+    }
+
+    @Benchmark
+    public String testActionsToXml(MatchedData d) throws IOException {
+        return ActionsIoUtils.toXml(d.src, d.actions, d.mappings).toString();
+    }
+
+    @Benchmark
+    public String testActionsToJson(MatchedData d) throws IOException {
+        return ActionsIoUtils.toJson(d.src, d.actions, d.mappings).toString();
+    }
+}
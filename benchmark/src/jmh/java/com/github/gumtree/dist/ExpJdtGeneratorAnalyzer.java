@@ -0,0 +1,90 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.gen.jdt.JdtTreeGenerator;
+import com.github.gumtreediff.tree.TreeContext;
+import edu.lu.uni.serval.gen.jdt.exp.ExpJdtTreeGenerator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+public class ExpJdtGeneratorAnalyzer {
+    @State(Scope.Benchmark)
+    public static class SourceData {
+        @Setup
+        public void load() throws IOException {
+            if (SYNTHETIC.equals(sourcePath))
+                source = expressionHeavyClass(300, 25);
+            else
+                source = new String(Files.readAllBytes(Paths.get(sourcePath)), StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Path of a Java file to parse, or "synthetic" for a generated class
+         * made of deeply nested expressions.
+         */
+        @Param({SYNTHETIC})
+        public String sourcePath;
+
+        public String source;
+    }
+
+    private static final String SYNTHETIC = "synthetic";
+
+    @Benchmark
+    public TreeContext testExpJdtGenerator(SourceData d) throws IOException {
+        return new ExpJdtTreeGenerator().generateFromString(d.source);
+    }
+
+    @Benchmark
+    public TreeContext testJdtGenerator(SourceData d) throws IOException {
+        return new JdtTreeGenerator().generateFromString(d.source);
+    }
+
+    static String expressionHeavyClass(int statements, int depth) {
+        Random random = new Random(1);
+        StringBuilder b = new StringBuilder("class Heavy {\n    void m() {\n");
+        for (int i = 0; i < statements; i++)
+            b.append("        int v").append(i).append(" = ").append(expression(random, depth)).append(";\n");
+        return b.append("    }\n}\n").toString();
+    }
+
+    private static String expression(Random random, int depth) {
+        if (depth == 0)
+            return random.nextBoolean() ? "a" : "1";
+        switch (random.nextInt(4)) {
+            case 0:
+                return "(" + expression(random, depth - 1) + " * x)";
+            case 1:
+                return "foo(" + expression(random, depth - 1) + ", b)";
+            case 2:
+                return "arr[" + expression(random, depth - 1) + "]";
+            default:
+                return "o.bar(" + expression(random, depth - 1) + ")";
+        }
+    }
+}
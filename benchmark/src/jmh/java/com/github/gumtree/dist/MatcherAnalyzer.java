@@ -19,26 +19,44 @@
 
 package com.github.gumtree.dist;
 
-import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.matchers.CompositeMatchers;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.heuristic.XyBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.cd.ChangeDistillerBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.cd.ChangeDistillerLeavesMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.CliqueSubtreeMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.CompleteBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.GreedySubtreeMatcher;
+import com.github.gumtreediff.matchers.optimal.rted.RtedMatcher;
+import com.github.gumtreediff.matchers.optimal.zs.ZsMatcher;
 import com.github.gumtreediff.tree.ITree;
 
 import org.openjdk.jmh.annotations.*;
 
+import java.io.IOException;
+
+/**
+ * Composite matchers, and each of their stages on its own. The bottom-up stages start from the
+ * mappings of the stage preceding them, computed once per trial; copying them is part of the
+ * measured time.
+ */
 public class MatcherAnalyzer {
     @State(Scope.Benchmark)
     public static class TreeData {
         @Setup
-        public void load() {
-            try {
-                String otherPath = refPath.replace("_v0_", "_v1_");
-                src = TreeIoUtils.fromXml().generateFromFile(refPath).getRoot();
-                dst = TreeIoUtils.fromXml().generateFromFile(otherPath).getRoot();
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        public void load() throws IOException {
+            TreePair pair = TreePair.load(refPath);
+            src = pair.src.getRoot();
+            dst = pair.dst.getRoot();
+            prepare();
+        }
+
+        /**
+         * Computes once per trial what the benchmarks using this state start from.
+         */
+        protected void prepare() {
         }
 
         @Param({})
@@ -49,10 +67,123 @@ public class MatcherAnalyzer {
         public ITree dst;
     }
 
+    @State(Scope.Benchmark)
+    public static class GreedySubtreeMatchedData extends TreeData {
+        @Override
+        protected void prepare() {
+            mappings = match(new GreedySubtreeMatcher(src, dst, new MappingStore()));
+        }
+
+        public MappingStore mappings;
+    }
+
+    @State(Scope.Benchmark)
+    public static class CliqueSubtreeMatchedData extends TreeData {
+        @Override
+        protected void prepare() {
+            mappings = match(new CliqueSubtreeMatcher(src, dst, new MappingStore()));
+        }
+
+        public MappingStore mappings;
+    }
+
+    @State(Scope.Benchmark)
+    public static class LeavesMatchedData extends TreeData {
+        @Override
+        protected void prepare() {
+            mappings = match(new ChangeDistillerLeavesMatcher(src, dst, new MappingStore()));
+        }
+
+        public MappingStore mappings;
+    }
+
+    private static MappingStore match(Matcher m) {
+        m.match();
+        return m.getMappings();
+    }
+
     @Benchmark
-    public void testClassicGumtree(TreeData d) {
+    public MappingStore testClassicGumtree(TreeData d) {
         Matcher m = new CompositeMatchers.ClassicGumtree(d.src, d.dst, new MappingStore());
         m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testNarrowedGumtree(TreeData d) {
+        Matcher m = new CompositeMatchers.NarrowedGumtree(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testTextGuidedGumtree(TreeData d) {
+        Matcher m = new CompositeMatchers.TextGuidedGumtree(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testGreedySubtreeMatcher(TreeData d) {
+        Matcher m = new GreedySubtreeMatcher(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testGreedyBottomUpMatcher(GreedySubtreeMatchedData d) {
+        Matcher m = new GreedyBottomUpMatcher(d.src, d.dst, d.mappings.copy());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testCliqueSubtreeMatcher(TreeData d) {
+        Matcher m = new CliqueSubtreeMatcher(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testCompleteBottomUpMatcher(CliqueSubtreeMatchedData d) {
+        Matcher m = new CompleteBottomUpMatcher(d.src, d.dst, d.mappings.copy());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testChangeDistillerLeavesMatcher(TreeData d) {
+        Matcher m = new ChangeDistillerLeavesMatcher(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testChangeDistillerBottomUpMatcher(LeavesMatchedData d) {
+        Matcher m = new ChangeDistillerBottomUpMatcher(d.src, d.dst, d.mappings.copy());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testXyBottomUpMatcher(GreedySubtreeMatchedData d) {
+        Matcher m = new XyBottomUpMatcher(d.src, d.dst, d.mappings.copy());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testZsMatcher(TreeData d) {
+        Matcher m = new ZsMatcher(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testRtedMatcher(TreeData d) {
+        Matcher m = new RtedMatcher(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
     }
 
 }
@@ -0,0 +1,95 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.client.Run;
+import com.github.gumtreediff.gen.Generators;
+import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.TreeContext;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Parsing of the sources kept next to the benchmark trees, and loading of the trees themselves
+ * from their XML dumps.
+ */
+public class ParsingAnalyzer {
+    @State(Scope.Benchmark)
+    public static class SourceData {
+        @Setup
+        public void load() throws IOException {
+            Run.initGenerators();
+            source = TreePair.readSource(refPath);
+            if (source == null)
+                throw new IllegalStateException("No source kept next to " + refPath);
+            generator = getGenerator();
+            xml = new String(Files.readAllBytes(Paths.get(refPath)), StandardCharsets.UTF_8);
+        }
+
+        private TreeGenerator getGenerator() {
+            if (DEFAULT.equals(generatorId)) {
+                String file = TreePair.sourceFileName(refPath);
+                TreeGenerator g = file == null ? null : Generators.getInstance().get(file);
+                if (g == null)
+                    throw new IllegalStateException("No generator found for " + refPath);
+                return g;
+            }
+            for (Generators.Entry e : Generators.getInstance().getEntries())
+                if (e.id.equals(generatorId))
+                    return e.instantiate(null);
+            throw new IllegalStateException("No generator \"" + generatorId + "\" found.");
+        }
+
+        @Param({})
+        public String refPath;
+
+        /**
+         * Id of the generator to use, or "default" for the one handling the language of the source.
+         */
+        @Param({DEFAULT})
+        public String generatorId;
+
+        public TreeGenerator generator;
+
+        public String source;
+
+        public String xml;
+    }
+
+    private static final String DEFAULT = "default";
+
+    @Benchmark
+    public TreeContext testGenerator(SourceData d) throws IOException {
+        return d.generator.generateFromString(d.source);
+    }
+
+    @Benchmark
+    public TreeContext testXmlTreeGenerator(SourceData d) throws IOException {
+        return TreeIoUtils.fromXml().generateFromString(d.xml);
+    }
+}
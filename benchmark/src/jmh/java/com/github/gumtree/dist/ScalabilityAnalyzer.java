@@ -0,0 +1,107 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.heuristic.gt.GreedySubtreeMatcher;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+
+/**
+ * Matching and edit script generation on synthetic trees of growing sizes. Comparing the scores
+ * of successive sizes shows whether a phase grows faster than the trees. Deep trees are obtained
+ * with a fan out of 1 and a maximum depth of the size (e.g. -PfanOuts=1 -PmaxDepths=100000).
+ * Larger trees are opt-in, as they make the default run very long (e.g. -Psizes=100000,1000000).
+ */
+public class ScalabilityAnalyzer {
+    @State(Scope.Benchmark)
+    public static class SyntheticData {
+        @Setup
+        public void generate() {
+            SyntheticTrees generator = new SyntheticTrees(SEED);
+            TreeContext srcContext = generator.generate(size, fanOut, maxDepth);
+            TreeContext dstContext = generator.edit(srcContext, (int) Math.ceil(size * editRatio),
+                    SyntheticTrees.EditMix.parse(editMix));
+            src = srcContext.getRoot();
+            dst = dstContext.getRoot();
+            Matcher m = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+            m.match();
+            mappings = m.getMappings();
+        }
+
+        @Param({"1000", "10000", "100000"})
+        public int size;
+
+        @Param({"8"})
+        public int fanOut;
+
+        @Param({"64"})
+        public int maxDepth;
+
+        /**
+         * Number of edits relative to the size of the trees.
+         */
+        @Param({"0.01"})
+        public double editRatio;
+
+        /**
+         * Relative weights of the edits, as "insert:delete:update:move".
+         */
+        @Param({"1:1:1:1"})
+        public String editMix;
+
+        public ITree src;
+
+        public ITree dst;
+
+        public MappingStore mappings;
+    }
+
+    private static final long SEED = 42;
+
+    @Benchmark
+    public MappingStore testClassicGumtree(SyntheticData d) {
+        Matcher m = new CompositeMatchers.ClassicGumtree(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public MappingStore testGreedySubtreeMatcher(SyntheticData d) {
+        Matcher m = new GreedySubtreeMatcher(d.src, d.dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    @Benchmark
+    public List<Action> testActionGenerator(SyntheticData d) {
+        return new ActionGenerator(d.src, d.dst, d.mappings).generate();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.tree.hash.HashUtils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+
+/**
+ * {@link TreeContext#validate()} and each of the computations it is made of.
+ */
+public class TreeAnalyzer {
+    @State(Scope.Benchmark)
+    public static class TreeData {
+        @Setup
+        public void load() throws IOException {
+            ctx = TreePair.load(refPath).src;
+            root = ctx.getRoot();
+        }
+
+        @Param({})
+        public String refPath;
+
+        public TreeContext ctx;
+
+        public ITree root;
+    }
+
+    @Benchmark
+    public TreeContext testValidate(TreeData d) {
+        d.ctx.validate();
+        return d.ctx;
+    }
+
+    @Benchmark
+    public ITree testComputeSize(TreeData d) {
+        TreeUtils.computeSize(d.root);
+        return d.root;
+    }
+
+    @Benchmark
+    public ITree testComputeDepth(TreeData d) {
+        TreeUtils.computeDepth(d.root);
+        return d.root;
+    }
+
+    @Benchmark
+    public ITree testComputeHeight(TreeData d) {
+        TreeUtils.computeHeight(d.root);
+        return d.root;
+    }
+
+    @Benchmark
+    public ITree testHash(TreeData d) {
+        HashUtils.DEFAULT_HASH_GENERATOR.hash(d.root);
+        return d.root;
+    }
+
+    @Benchmark
+    public ITree testPostOrderNumbering(TreeData d) {
+        TreeUtils.postOrderNumbering(d.root);
+        return d.root;
+    }
+}
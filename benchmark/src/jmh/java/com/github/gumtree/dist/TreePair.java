@@ -0,0 +1,89 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.TextDiffMatcher;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A pair of trees of the benchmark, as dumped by {@link BenchmarkCollector}: the _v0_ tree
+ * given by its path, the _v1_ tree next to it, and their sources when they have been kept.
+ */
+final class TreePair {
+
+    private static final Pattern LANGUAGE = Pattern.compile("_v0_([a-z]+)\\.xml$");
+
+    final String srcPath;
+
+    final String dstPath;
+
+    final TreeContext src;
+
+    final TreeContext dst;
+
+    private TreePair(String srcPath) throws IOException {
+        this.srcPath = srcPath;
+        this.dstPath = srcPath.replace("_v0_", "_v1_");
+        src = TreeIoUtils.fromXml().generateFromFile(srcPath);
+        dst = TreeIoUtils.fromXml().generateFromFile(dstPath);
+        attachSource(src, srcPath);
+        attachSource(dst, dstPath);
+    }
+
+    static TreePair load(String refPath) throws IOException {
+        return new TreePair(refPath);
+    }
+
+    private static void attachSource(TreeContext ctx, String treePath) throws IOException {
+        String source = readSource(treePath);
+        if (source != null)
+            ctx.getRoot().setMetadata(TextDiffMatcher.SOURCE, source);
+    }
+
+    /**
+     * @return the source kept next to the given tree dump, or null if there is none.
+     */
+    static String readSource(String treePath) throws IOException {
+        Path source = Paths.get(treePath.replaceAll("\\.xml$", ".src"));
+        if (!Files.exists(source))
+            return null;
+        return new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a file name with the extension of the language of the given tree dump, to look up
+     *     its generator, or null if the dump name does not tell it.
+     */
+    static String sourceFileName(String treePath) {
+        Matcher m = LANGUAGE.matcher(treePath);
+        return m.find() ? "source." + m.group(1) : null;
+    }
+}
@@ -26,15 +26,30 @@ import com.github.gumtreediff.gen.Generators;
 import com.github.gumtreediff.io.ActionsIoUtils;
 import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.IdenticalTreesMatcher;
 import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.tree.ITree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.FastPaths;
+import com.github.gumtreediff.utils.Pair;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class ActionsCollector {
@@ -45,6 +60,14 @@ public class ActionsCollector {
 
     private static final String REF_DIR = "src/main/resources/";
 
+    private static final String CACHE_DIR = "build/tmp/trees/";
+
+    private static final int DIFF_CONTEXT = 3;
+
+    private static final int MAX_DIFF_LINES = 60;
+
+    private static final long MAX_LCS_CELLS = 25_000_000;
+
     public static void main(String[] args) throws Exception {
         if (args.length != 1) {
             System.err.println("Wrong number of arguments.");
@@ -70,76 +93,208 @@ public class ActionsCollector {
             Path outputPath = Paths.get(path.toString().replace("_v0_","_actions_"));
             TreeContext src = TreeIoUtils.fromXml().generateFromFile(path.toString());
             TreeContext dst = TreeIoUtils.fromXml().generateFromFile(otherPath.toString());
-            CompositeMatchers.ClassicGumtree matcher = new CompositeMatchers.ClassicGumtree(
-                    src.getRoot(), dst.getRoot(), new MappingStore());
-            matcher.match();
-            ActionGenerator g = new ActionGenerator(src.getRoot(), dst.getRoot(), matcher.getMappings());
-            List<Action> actions = g.generate();
+            Pair<MappingStore, List<Action>> diff = computeActions(src, dst);
 
             String res = Paths.get(OUTPUT_DIR, outputPath.getFileName().toString()).toString();
-            ActionsIoUtils.toText(src, actions, matcher.getMappings()).writeTo(new FileWriter(res));
+            try (Writer w = Files.newBufferedWriter(Paths.get(res), StandardCharsets.UTF_8)) {
+                ActionsIoUtils.toText(src, diff.getSecond(), diff.getFirst()).writeTo(w);
+            }
         }
+        System.out.println(FastPaths.report());
     }
 
+    /**
+     * Recompute the actions of every pair, in parallel, and compare them with the stored ones.
+     * The trees are read from a binary cache of the XML dumps, and the outputs are compared by
+     * their hashes, a unified diff of the scripts being only computed for the differing ones.
+     */
     public static void checkActions() throws Exception {
         Run.initGenerators();
         List<Path> paths = Files.walk(Paths.get(RES_DIR)).filter(
-                p -> p.getFileName().toString().matches(".*_v0_.*\\.xml")).collect(Collectors.toList());
-        boolean dirty = false;
-        StringBuffer b = new StringBuffer();
-        for (Path path : paths) {
-            Path otherPath = Paths.get(path.toString().replace("_v0_","_v1_"));
-            TreeContext src = TreeIoUtils.fromXml().generateFromFile(path.toString());
-            TreeContext dst = TreeIoUtils.fromXml().generateFromFile(otherPath.toString());
-            CompositeMatchers.ClassicGumtree matcher = new CompositeMatchers.ClassicGumtree(
-                    src.getRoot(), dst.getRoot(), new MappingStore());
-            matcher.match();
-            ActionGenerator g = new ActionGenerator(src.getRoot(), dst.getRoot(), matcher.getMappings());
-            List<Action> actions = g.generate();
-            StringWriter w = new StringWriter();
-            ActionsIoUtils.toText(src, actions, matcher.getMappings()).writeTo(w);
-            Path refPath = Paths.get(path.toString().replace("_v0_","_actions_"));
-            String ref = Paths.get(REF_DIR, refPath.getFileName().toString()).toString();
-            if (!contentEquals(new StringReader(w.toString()), new FileReader(ref))) {
-                dirty = true;
-                b.append(String.format("Content not equals for: %s. Now: %d Was: %d\n",
-                        ref, countLines(new StringReader(w.toString())), countLines(new FileReader(ref))));
-            }
+                p -> p.getFileName().toString().matches(".*_v0_.*\\.xml")).sorted().collect(Collectors.toList());
+        TreeCache cache = new TreeCache(Paths.get(CACHE_DIR));
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        List<Future<String>> results = new ArrayList<>();
+        for (Path path : paths)
+            results.add(pool.submit(() -> checkActions(cache, path)));
+        pool.shutdown();
+
+        StringBuilder b = new StringBuilder();
+        for (Future<String> result : results) {
+            String report = result.get();
+            if (report != null)
+                b.append(report);
         }
-        if (dirty) {
+        System.out.println(FastPaths.report());
+        if (b.length() > 0) {
             System.err.println(b.toString());
             System.exit(-1);
         }
     }
 
-    public static boolean contentEquals(Reader cur, Reader ref) throws IOException  {
-        try (Reader _cur = cur; Reader _ref = ref) {
-            int ch = _cur.read();
-            while (-1 != ch) {
-                int ch2 = _ref.read();
-                if (ch != ch2)
-                    return false;
-                ch = _cur.read();
-            }
-            int ch2 = _ref.read();
-            return (ch2 == -1);
+    /**
+     * @return the differences between the actions of the given pair and the stored ones, null if none.
+     */
+    private static String checkActions(TreeCache cache, Path path) throws Exception {
+        Path otherPath = Paths.get(path.toString().replace("_v0_","_v1_"));
+        TreeContext src = cache.load(path);
+        TreeContext dst = cache.load(otherPath);
+        Pair<MappingStore, List<Action>> diff = computeActions(src, dst);
+        StringWriter w = new StringWriter();
+        ActionsIoUtils.toText(src, diff.getSecond(), diff.getFirst()).writeTo(w);
+        String actions = w.toString();
+
+        Path refPath = Paths.get(REF_DIR, path.getFileName().toString().replace("_v0_","_actions_"));
+        if (!Files.isRegularFile(refPath))
+            return String.format("Missing reference for: %s\n", refPath);
+        if (Arrays.equals(sha1(actions), sha1(refPath)))
+            return null;
+        List<String> ref = Files.readAllLines(refPath, StandardCharsets.UTF_8);
+        List<String> now = Arrays.asList(actions.split("\r?\n", -1));
+        if (!now.isEmpty() && now.get(now.size() - 1).isEmpty())
+            now = now.subList(0, now.size() - 1);
+        return String.format("Content not equals for: %s. Now: %d Was: %d\n%s", refPath, now.size(), ref.size(),
+                unifiedDiff(ref, now, "was/" + refPath.getFileName(), "now/" + refPath.getFileName()));
+    }
+
+    private static byte[] sha1(String s) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-1").digest(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] sha1(Path file) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-1");
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                digest.update(buffer, 0, read);
         }
+        return digest.digest();
     }
 
-    public static int countLines(Reader r) throws IOException {
-        try (Reader _r = r) {
-            char[] c = new char[1024];
-            int count = 0;
-            int readChars = 0;
-            boolean empty = true;
-            while ((readChars = _r.read(c)) != -1) {
-                empty = false;
-                for (int i = 0; i < readChars; ++i)
-                    if (c[i] == '\n')
-                        ++count;
+    /**
+     * @return a unified diff of the given lines, with three lines of context, truncated after
+     *     {@link #MAX_DIFF_LINES} lines. The lines between the common prefix and suffix are aligned
+     *     with a longest common subsequence, unless there are too many of them.
+     */
+    static String unifiedDiff(List<String> a, List<String> b, String aName, String bName) {
+        int prefix = 0;
+        while (prefix < a.size() && prefix < b.size() && a.get(prefix).equals(b.get(prefix)))
+            prefix++;
+        int suffix = 0;
+        while (suffix < a.size() - prefix && suffix < b.size() - prefix
+                && a.get(a.size() - 1 - suffix).equals(b.get(b.size() - 1 - suffix)))
+            suffix++;
+        int n = a.size() - prefix - suffix;
+        int m = b.size() - prefix - suffix;
+
+        // The edit script as a sequence of ' ', '-' and '+', over the whole lines.
+        StringBuilder ops = new StringBuilder();
+        for (int i = 0; i < prefix; i++)
+            ops.append(' ');
+        if ((long) n * m <= MAX_LCS_CELLS) {
+            int[][] lcs = new int[n + 1][m + 1];
+            for (int i = n - 1; i >= 0; i--)
+                for (int j = m - 1; j >= 0; j--)
+                    lcs[i][j] = a.get(prefix + i).equals(b.get(prefix + j))
+                            ? lcs[i + 1][j + 1] + 1 : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            int i = 0;
+            int j = 0;
+            while (i < n || j < m) {
+                if (i < n && j < m && a.get(prefix + i).equals(b.get(prefix + j))) {
+                    ops.append(' ');
+                    i++;
+                    j++;
+                } else if (i < n && (j == m || lcs[i + 1][j] >= lcs[i][j + 1])) {
+                    ops.append('-');
+                    i++;
+                } else {
+                    ops.append('+');
+                    j++;
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++)
+                ops.append('-');
+            for (int j = 0; j < m; j++)
+                ops.append('+');
+        }
+        for (int i = 0; i < suffix; i++)
+            ops.append(' ');
+
+        StringBuilder out = new StringBuilder();
+        out.append("--- ").append(aName).append('\n').append("+++ ").append(bName).append('\n');
+        int lines = 0;
+        int k = 0;
+        int ai = 0;
+        int bi = 0;
+        while (k < ops.length()) {
+            if (ops.charAt(k) == ' ') {
+                k++;
+                ai++;
+                bi++;
+                continue;
             }
-            return (count == 0 && !empty) ? 1 : count;
+            // A hunk: from three lines before the change to three lines after the last change
+            // not followed by more than six unchanged lines.
+            int start = Math.max(0, k - DIFF_CONTEXT);
+            int end = k;
+            int unchanged = 0;
+            while (end < ops.length() && unchanged <= 2 * DIFF_CONTEXT) {
+                unchanged = ops.charAt(end) == ' ' ? unchanged + 1 : 0;
+                end++;
+            }
+            end -= Math.max(0, unchanged - DIFF_CONTEXT);
+            int aStart = ai - (k - start);
+            int bStart = bi - (k - start);
+            int aCount = 0;
+            int bCount = 0;
+            for (int x = start; x < end; x++) {
+                if (ops.charAt(x) != '+')
+                    aCount++;
+                if (ops.charAt(x) != '-')
+                    bCount++;
+            }
+            out.append(String.format("@@ -%d,%d +%d,%d @@\n", aStart + 1, aCount, bStart + 1, bCount));
+            int x = start;
+            int ax = aStart;
+            int bx = bStart;
+            for (; x < end && lines < MAX_DIFF_LINES; x++, lines++) {
+                char op = ops.charAt(x);
+                out.append(op).append(op == '+' ? b.get(bx) : a.get(ax)).append('\n');
+                if (op != '+')
+                    ax++;
+                if (op != '-')
+                    bx++;
+            }
+            if (lines >= MAX_DIFF_LINES) {
+                out.append("...\n");
+                break;
+            }
+            k = end;
+            ai = aStart + aCount;
+            bi = bStart + bCount;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Match the two trees with the classic GumTree matcher and compute the edit script,
+     * skipping both phases when the trees are isomorphic.
+     */
+    private static Pair<MappingStore, List<Action>> computeActions(TreeContext src, TreeContext dst) {
+        if (IdenticalTreesMatcher.areIdentical(src.getRoot(), dst.getRoot())) {
+            FastPaths.record(FastPaths.Kind.ISOMORPHIC_TREES);
+            Matcher matcher = new IdenticalTreesMatcher(src.getRoot(), dst.getRoot(), new MappingStore());
+            matcher.match();
+            return new Pair<>(matcher.getMappings(), new ArrayList<>());
         }
+        FastPaths.record(FastPaths.Kind.FULL_DIFF);
+        CompositeMatchers.ClassicGumtree matcher = new CompositeMatchers.ClassicGumtree(
+                src.getRoot(), dst.getRoot(), new MappingStore());
+        matcher.match();
+        ActionGenerator g = new ActionGenerator(src.getRoot(), dst.getRoot(), matcher.getMappings());
+        return new Pair<>(matcher.getMappings(), g.generate());
     }
 
 }
@@ -29,6 +29,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -57,6 +58,9 @@ public class BenchmarkCollector {
             TreeIoUtils.toXml(ctx).writeTo(new File(OUTPUT_DIR + oldName + ".xml"));
             ctx = getTreeContext(otherPath.toAbsolutePath().toString());
             TreeIoUtils.toXml(ctx).writeTo(new File(OUTPUT_DIR + newName + ".xml"));
+            // Raw sources are kept next to the trees for text-guided matchers.
+            Files.copy(path, Paths.get(OUTPUT_DIR + oldName + ".src"), StandardCopyOption.REPLACE_EXISTING);
+            Files.copy(otherPath, Paths.get(OUTPUT_DIR + newName + ".src"), StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
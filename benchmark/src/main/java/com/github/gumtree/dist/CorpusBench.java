@@ -0,0 +1,259 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.client.Run;
+import com.github.gumtreediff.gen.Generators;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
+import com.github.gumtreediff.metrics.MetricsRegistry;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Throughput of the whole diff pipeline (parse, match, actions) on a corpus of file pairs, run
+ * by several threads. The corpus is either a directory holding <code>prev/</code> and
+ * <code>rev/</code> directories, whose files with the same relative path are paired, or a
+ * directory of <code>*_v0_*</code> files paired with their <code>*_v1_*</code> revision. XML
+ * files are read as tree dumps, other files are parsed by the registered generators.
+ * Reports the number of pairs per second, the percentiles of the latency of each phase
+ * (measured with {@link Instrumentation}), the failures and the heap high-water mark.
+ * Usage: CorpusBench directory [threads] [matcher] [warmup passes].
+ */
+public class CorpusBench {
+
+    private static final String PREV_DIR = "prev";
+
+    private static final String REV_DIR = "rev";
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 4) {
+            System.err.println("Usage: CorpusBench directory [threads] [matcher] [warmup passes]");
+            System.exit(-1);
+        }
+        Path corpus = Paths.get(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String matcher = args.length > 2 && !args[2].equals("default") ? args[2] : null;
+        int warmup = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        Run.initGenerators();
+        List<Pair<Path, Path>> pairs = findPairs(corpus);
+        if (pairs.isEmpty()) {
+            System.err.println("No file pairs in " + corpus);
+            System.exit(-1);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < warmup; i++)
+                runPass(pool, pairs, matcher);
+
+            MetricsRegistry metrics = new MetricsRegistry(pairs.size());
+            Instrumentation.setListener(metrics);
+            resetPeakHeap();
+            long start = System.nanoTime();
+            Map<String, String> failures = runPass(pool, pairs, matcher);
+            long wall = System.nanoTime() - start;
+            Instrumentation.setListener(null);
+            report(pairs.size(), threads, wall, metrics, failures);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return the pairs of the corpus, sorted by path.
+     */
+    static List<Pair<Path, Path>> findPairs(Path corpus) throws IOException {
+        List<Pair<Path, Path>> pairs = new ArrayList<>();
+        Path prev = corpus.resolve(PREV_DIR);
+        Path rev = corpus.resolve(REV_DIR);
+        if (Files.isDirectory(prev) && Files.isDirectory(rev)) {
+            try (Stream<Path> files = Files.walk(prev)) {
+                for (Path p : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                    Path other = rev.resolve(prev.relativize(p));
+                    if (Files.isRegularFile(other))
+                        pairs.add(new Pair<>(p, other));
+                }
+            }
+        } else {
+            try (Stream<Path> files = Files.walk(corpus)) {
+                for (Path p : files.filter(p -> p.getFileName().toString().contains("_v0_"))
+                        .sorted().collect(Collectors.toList())) {
+                    Path other = p.resolveSibling(p.getFileName().toString().replace("_v0_", "_v1_"));
+                    if (Files.isRegularFile(other))
+                        pairs.add(new Pair<>(p, other));
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Diffs all the pairs on the given pool.
+     * @return the failed pairs with the class of their failure.
+     */
+    private static Map<String, String> runPass(ExecutorService pool, List<Pair<Path, Path>> pairs, String matcher)
+            throws InterruptedException {
+        List<Future<?>> results = new ArrayList<>();
+        for (Pair<Path, Path> pair : pairs)
+            results.add(pool.submit(() -> diff(pair, matcher)));
+        Map<String, String> failures = new TreeMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            } catch (ExecutionException e) {
+                failures.put(name(pairs.get(i)), e.getCause().getClass().getName());
+            }
+        }
+        return failures;
+    }
+
+    private static Void diff(Pair<Path, Path> pair, String matcherId) throws IOException {
+        Instrumentation.startDiff(name(pair));
+        try {
+            long start = Instrumentation.start(Phase.PARSE);
+            TreeContext src = parse(pair.getFirst());
+            TreeContext dst = parse(pair.getSecond());
+            Instrumentation.end(Phase.PARSE, start);
+            Matcher m = matcherId == null
+                    ? Matchers.getInstance().getMatcher(src.getRoot(), dst.getRoot())
+                    : Matchers.getInstance().getMatcher(matcherId, src.getRoot(), dst.getRoot());
+            m.match();
+            new ActionGenerator(src.getRoot(), dst.getRoot(), m.getMappings()).generate();
+            return null;
+        } finally {
+            Instrumentation.endDiff();
+        }
+    }
+
+    private static String name(Pair<Path, Path> pair) {
+        return pair.getFirst().toString();
+    }
+
+    private static TreeContext parse(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(".xml"))
+            return TreeIoUtils.fromXml().generateFromFile(file.toString());
+        return Generators.getInstance().getTree(file.toString());
+    }
+
+    private static void report(int pairs, int threads, long wall, MetricsRegistry metrics,
+                               Map<String, String> failures) {
+        System.out.printf("pairs: %d failed: %d threads: %d time: %.2f s throughput: %.2f pairs/s\n",
+                pairs, failures.size(), threads, wall / 1e9, pairs / (wall / 1e9));
+
+        // The latencies are the ones of the successful diffs, the total being the sum of the
+        // phases (the validation being part of the parsing, and the last chance matches of the
+        // bottom-up matching).
+        List<MetricsRegistry.Record> records = new ArrayList<>();
+        for (MetricsRegistry.Record r : metrics.getDiffs())
+            if (!failures.containsKey(r.getName()))
+                records.add(r);
+        System.out.printf("%-20s %12s %12s %12s %12s\n", "phase (ms)", "p50", "p95", "p99", "max");
+        long[] totals = new long[records.size()];
+        for (Phase phase : Phase.values()) {
+            long[] nanos = new long[records.size()];
+            boolean measured = false;
+            for (int i = 0; i < nanos.length; i++) {
+                MetricsRegistry.Record r = records.get(i);
+                nanos[i] = r.getNanos(phase);
+                measured |= r.getCalls(phase) > 0;
+                if (phase != Phase.VALIDATE && phase != Phase.LAST_CHANCE_MATCH)
+                    totals[i] += nanos[i];
+            }
+            if (measured)
+                printLatencies(phase.name().toLowerCase(Locale.ROOT), nanos);
+        }
+        printLatencies("total", totals);
+
+        if (!failures.isEmpty()) {
+            System.out.println("failures:");
+            Map<String, Integer> kinds = new TreeMap<>();
+            for (String kind : failures.values())
+                kinds.merge(kind, 1, Integer::sum);
+            kinds.forEach((kind, count) -> System.out.printf("  %-60s %6d\n", kind, count));
+            failures.forEach((pair, kind) -> System.out.printf("  %s: %s\n", pair, kind));
+        }
+        System.out.printf("heap high-water mark: %.1f MB\n", peakHeap() / (1024.0 * 1024.0));
+    }
+
+    private static void printLatencies(String name, long[] nanos) {
+        if (nanos.length == 0)
+            return;
+        Arrays.sort(nanos);
+        System.out.printf("%-20s", name);
+        for (double p : PERCENTILES)
+            System.out.printf(" %12.3f", percentile(nanos, p) / 1e6);
+        System.out.printf(" %12.3f\n", nanos[nanos.length - 1] / 1e6);
+    }
+
+    /**
+     * @return the given percentile of the sorted values, using the nearest rank.
+     */
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                pool.resetPeakUsage();
+    }
+
+    /**
+     * @return the sum of the peak usages of the heap pools since the last reset, an upper bound
+     *     of the heap high-water mark since the peaks of the pools may not be simultaneous.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                peak += pool.getPeakUsage().getUsed();
+        return peak;
+    }
+}
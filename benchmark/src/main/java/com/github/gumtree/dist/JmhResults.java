@@ -0,0 +1,198 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of a JMH run, read from the CSV file written by the jmh task.
+ */
+public final class JmhResults {
+
+    private static final String PARAM_PREFIX = "Param: ";
+
+    private final List<Result> results;
+
+    private JmhResults(List<Result> results) {
+        this.results = results;
+    }
+
+    public List<Result> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    public static JmhResults read(Path csv) throws IOException {
+        List<String> lines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        if (lines.isEmpty())
+            throw new IOException("Empty JMH results: " + csv);
+        List<String> header = split(lines.get(0));
+        int benchmark = column(header, "Benchmark", csv);
+        int mode = column(header, "Mode", csv);
+        int samples = column(header, "Samples", csv);
+        int score = column(header, "Score", csv);
+        int error = column(header, "Score Error (99.9%)", csv);
+        int unit = column(header, "Unit", csv);
+        List<Result> results = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.trim().isEmpty())
+                continue;
+            List<String> values = split(line);
+            Map<String, String> params = new LinkedHashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++)
+                if (header.get(i).startsWith(PARAM_PREFIX) && !values.get(i).isEmpty())
+                    params.put(header.get(i).substring(PARAM_PREFIX.length()), values.get(i));
+            results.add(new Result(values.get(benchmark), values.get(mode), Integer.parseInt(values.get(samples)),
+                    parseDouble(values.get(score)), parseDouble(values.get(error)), values.get(unit), params));
+        }
+        return new JmhResults(results);
+    }
+
+    private static int column(List<String> header, String name, Path csv) throws IOException {
+        int i = header.indexOf(name);
+        if (i == -1)
+            throw new IOException("No column \"" + name + "\" in JMH results: " + csv);
+        return i;
+    }
+
+    private static double parseDouble(String value) {
+        // JMH formats numbers with the default locale
+        return Double.parseDouble(value.replace(',', '.'));
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder b = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (c == ',' && !quoted) {
+                values.add(b.toString());
+                b.setLength(0);
+            } else
+                b.append(c);
+        }
+        values.add(b.toString());
+        return values;
+    }
+
+    public static final class Result {
+
+        private final String benchmark;
+
+        private final String mode;
+
+        private final int samples;
+
+        private final double score;
+
+        private final double error;
+
+        private final String unit;
+
+        private final Map<String, String> params;
+
+        Result(String benchmark, String mode, int samples, double score, double error, String unit,
+               Map<String, String> params) {
+            this.benchmark = benchmark;
+            this.mode = mode;
+            this.samples = samples;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.params = params;
+        }
+
+        /**
+         * @return the name of the benchmark, followed by the name of the secondary result after a
+         *     colon for the results of profilers (e.g. "...testClassicGumtree:&middot;gc.alloc.rate.norm").
+         */
+        public String getBenchmark() {
+            return benchmark;
+        }
+
+        public boolean isSecondary() {
+            return benchmark.indexOf(':') != -1;
+        }
+
+        public String getMode() {
+            return mode;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * @return the half-width of the 99.9% confidence interval of the score, NaN when JMH could
+         *     not compute it.
+         */
+        public double getError() {
+            return error;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+
+        public Map<String, String> getParams() {
+            return Collections.unmodifiableMap(params);
+        }
+
+        /**
+         * @return the benchmark and its parameters, identifying the result across runs. The
+         *     parameters holding paths are reduced to their file names, since the jmh task
+         *     passes absolute paths that depend on the checkout.
+         */
+        public String getKey() {
+            if (params.isEmpty())
+                return benchmark;
+            Map<String, String> key = new LinkedHashMap<>();
+            for (Map.Entry<String, String> e : params.entrySet())
+                key.put(e.getKey(), fileName(e.getValue()));
+            return benchmark + " " + key;
+        }
+
+        private static String fileName(String value) {
+            int separator = Math.max(value.lastIndexOf('/'), value.lastIndexOf('\\'));
+            return separator == -1 ? value : value.substring(separator + 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.6g +- %.6g %s", getKey(), score, error, unit);
+        }
+    }
+}
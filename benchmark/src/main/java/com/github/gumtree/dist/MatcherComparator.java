@@ -0,0 +1,89 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compare the quality (number of actions, number of mappings) and the wall-clock time
+ * of several matchers on the benchmark corpus. The first matcher is the reference.
+ * Usage: MatcherComparator [matcher ids...], defaults to "gumtree gumtree-narrowed".
+ */
+public class MatcherComparator {
+
+    private static final String RES_DIR = "src/jmh/resources/";
+
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        List<String> ids = args.length == 0 ? Arrays.asList("gumtree", "gumtree-narrowed") : Arrays.asList(args);
+        List<Path> paths = Files.walk(Paths.get(RES_DIR)).filter(
+                p -> p.getFileName().toString().matches(".*_v0_.*\\.xml")).collect(Collectors.toList());
+
+        long[] totalActions = new long[ids.size()];
+        long[] totalTimes = new long[ids.size()];
+        int[] worse = new int[ids.size()];
+        System.out.printf("%-60s %-20s %8s %8s %10s\n", "pair", "matcher", "mappings", "actions", "time (ms)");
+        for (Path path : paths) {
+            Path otherPath = Paths.get(path.toString().replace("_v0_", "_v1_"));
+            int refActions = -1;
+            for (int i = 0; i < ids.size(); i++) {
+                long best = Long.MAX_VALUE;
+                Matcher matcher = null;
+                for (int run = 0; run < RUNS; run++) {
+                    TreeContext src = TreeIoUtils.fromXml().generateFromFile(path.toString());
+                    TreeContext dst = TreeIoUtils.fromXml().generateFromFile(otherPath.toString());
+                    long start = System.nanoTime();
+                    matcher = Matchers.getInstance().getMatcher(ids.get(i), src.getRoot(), dst.getRoot());
+                    matcher.match();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                List<Action> actions = new ActionGenerator(matcher.getSrc(), matcher.getDst(),
+                        matcher.getMappings()).generate();
+                if (i == 0)
+                    refActions = actions.size();
+                else if (actions.size() > refActions)
+                    worse[i]++;
+                totalActions[i] += actions.size();
+                totalTimes[i] += best;
+                System.out.printf("%-60s %-20s %8d %8d %10.2f\n", path.getFileName(), ids.get(i),
+                        matcher.getMappingSet().size(), actions.size(), best / 1e6);
+            }
+        }
+
+        System.out.println();
+        for (int i = 0; i < ids.size(); i++)
+            System.out.printf("%-20s actions: %8d time: %10.2f ms longer scripts than %s: %d/%d\n", ids.get(i),
+                    totalActions[i], totalTimes[i] / 1e6, ids.get(0), worse[i], paths.size());
+    }
+}
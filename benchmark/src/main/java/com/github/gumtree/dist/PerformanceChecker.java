@@ -0,0 +1,215 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the results of a JMH run with the ones of a baseline run, and fails on regressions of
+ * the time or of the normalized allocation rate of the benchmarks.
+ *
+ * A result has regressed when it is worse than the baseline by more than the tolerance of its
+ * benchmark, and when the 99.9% confidence intervals reported by JMH for both runs do not
+ * overlap, so that noise within the error bars is never reported.
+ *
+ * Usage: PerformanceChecker baseline.csv results.csv [tolerance] [tolerances file], the tolerance
+ * being relative (0.1 by default). Each line of the tolerances file holds a regular expression
+ * and the tolerance of the results whose benchmark name matches it, the first match winning.
+ *
+ * The check also fails when no result could be compared, or when results of the baseline are
+ * missing from the run, since it would otherwise pass without checking them.
+ */
+public class PerformanceChecker {
+
+    private static final double DEFAULT_TOLERANCE = 0.1;
+
+    private static final String ALLOCATION = ":\u00b7gc.alloc.rate.norm";
+
+    private final Map<Pattern, Double> tolerances = new LinkedHashMap<>();
+
+    private final double defaultTolerance;
+
+    public PerformanceChecker(double defaultTolerance) {
+        this.defaultTolerance = defaultTolerance;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: PerformanceChecker baseline.csv results.csv [tolerance] [tolerances file]");
+            System.exit(-1);
+        }
+        PerformanceChecker checker = new PerformanceChecker(
+                args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE);
+        if (args.length > 3)
+            checker.readTolerances(Paths.get(args[3]));
+        List<Comparison> comparisons = checker.compare(JmhResults.read(Paths.get(args[0])),
+                JmhResults.read(Paths.get(args[1])));
+
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        System.out.printf("%-10s %16s %16s %9s  %s\n", "status", "baseline", "current", "change", "benchmark");
+        for (Comparison c : comparisons) {
+            System.out.println(c);
+            counts.merge(c.status, 1, Integer::sum);
+        }
+        int compared = counts.getOrDefault(Status.OK, 0) + counts.getOrDefault(Status.IMPROVED, 0)
+                + counts.getOrDefault(Status.REGRESSION, 0);
+        for (Status s : new Status[] { Status.MISSING, Status.NEW, Status.MISMATCH })
+            if (counts.containsKey(s))
+                System.err.printf("WARNING: %d results %s, they were not checked against %s\n",
+                        counts.get(s), s, args[0]);
+        if (compared == 0) {
+            System.err.printf("No result could be compared with %s\n", args[0]);
+            System.exit(1);
+        }
+        if (counts.containsKey(Status.REGRESSION)) {
+            System.err.printf("%d regressions against %s\n", counts.get(Status.REGRESSION), args[0]);
+            System.exit(1);
+        }
+        if (counts.containsKey(Status.MISSING)) {
+            System.err.printf("%d results of %s are missing, store a new baseline if they were removed\n",
+                    counts.get(Status.MISSING), args[0]);
+            System.exit(1);
+        }
+    }
+
+    public void readTolerances(Path file) throws IOException {
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#"))
+                continue;
+            int space = line.lastIndexOf(' ');
+            if (space == -1)
+                throw new IOException("Expected a pattern and a tolerance: " + line);
+            setTolerance(line.substring(0, space).trim(), Double.parseDouble(line.substring(space + 1)));
+        }
+    }
+
+    public void setTolerance(String benchmarkPattern, double tolerance) {
+        tolerances.put(Pattern.compile(benchmarkPattern), tolerance);
+    }
+
+    public double getTolerance(String benchmark) {
+        for (Map.Entry<Pattern, Double> e : tolerances.entrySet())
+            if (e.getKey().matcher(benchmark).find())
+                return e.getValue();
+        return defaultTolerance;
+    }
+
+    /**
+     * Compares the times and normalized allocation rates of the current results with the ones
+     * of the baseline having the same benchmark and parameters.
+     */
+    public List<Comparison> compare(JmhResults baseline, JmhResults current) {
+        Map<String, JmhResults.Result> before = new LinkedHashMap<>();
+        for (JmhResults.Result r : baseline.getResults())
+            if (isChecked(r))
+                before.put(r.getKey(), r);
+
+        List<Comparison> comparisons = new ArrayList<>();
+        for (JmhResults.Result r : current.getResults()) {
+            if (!isChecked(r))
+                continue;
+            JmhResults.Result b = before.remove(r.getKey());
+            comparisons.add(compare(b, r));
+        }
+        for (JmhResults.Result b : before.values())
+            comparisons.add(new Comparison(Status.MISSING, b, null, Double.NaN));
+        return comparisons;
+    }
+
+    private static boolean isChecked(JmhResults.Result r) {
+        return !r.isSecondary() || r.getBenchmark().endsWith(ALLOCATION);
+    }
+
+    private Comparison compare(JmhResults.Result before, JmhResults.Result after) {
+        if (before == null)
+            return new Comparison(Status.NEW, null, after, Double.NaN);
+        if (!before.getUnit().equals(after.getUnit()) || !before.getMode().equals(after.getMode()))
+            return new Comparison(Status.MISMATCH, before, after, Double.NaN);
+
+        // a throughput gets worse when it decreases, the other scores when they increase
+        double sign = "thrpt".equals(after.getMode()) ? -1 : 1;
+        double change = (after.getScore() - before.getScore()) / before.getScore();
+        double worse = sign * change;
+        double tolerance = getTolerance(after.getBenchmark());
+        boolean apart = Double.isNaN(before.getError()) || Double.isNaN(after.getError())
+                || Math.abs(after.getScore() - before.getScore()) > before.getError() + after.getError();
+        Status status;
+        if (apart && worse > tolerance)
+            status = Status.REGRESSION;
+        else if (apart && -worse > tolerance)
+            status = Status.IMPROVED;
+        else
+            status = Status.OK;
+        return new Comparison(status, before, after, change);
+    }
+
+    public enum Status {
+        OK, IMPROVED, REGRESSION, NEW, MISSING, MISMATCH
+    }
+
+    public static final class Comparison {
+
+        public final Status status;
+
+        public final JmhResults.Result baseline;
+
+        public final JmhResults.Result current;
+
+        /**
+         * The relative change of the score, NaN when the results cannot be compared.
+         */
+        public final double change;
+
+        Comparison(Status status, JmhResults.Result baseline, JmhResults.Result current, double change) {
+            this.status = status;
+            this.baseline = baseline;
+            this.current = current;
+            this.change = change;
+        }
+
+        @Override
+        public String toString() {
+            JmhResults.Result any = current != null ? current : baseline;
+            return String.format("%-10s %16s %16s %9s  %s (%s)", status, format(baseline), format(current),
+                    Double.isNaN(change) ? "" : String.format("%+.1f%%", change * 100), any.getKey(), any.getUnit());
+        }
+
+        private static String format(JmhResults.Result r) {
+            if (r == null)
+                return "-";
+            if (Double.isNaN(r.getError()))
+                return String.format("%.4g", r.getScore());
+            return String.format("%.4g+-%.2g", r.getScore(), r.getError());
+        }
+    }
+}
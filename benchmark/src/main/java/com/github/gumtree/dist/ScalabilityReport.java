@@ -0,0 +1,89 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shows how the scores of the scalability benchmarks grow with the size of the trees, from the
+ * results of a JMH run. For each pair of successive sizes, the growth exponent is
+ * log(score ratio) / log(size ratio): 1 for a linear phase, 2 for a quadratic one.
+ * Usage: ScalabilityReport results.csv [max exponent], exits with 1 when a growth exponent
+ * exceeds the given maximum.
+ */
+public class ScalabilityReport {
+
+    private static final String SIZE = "size";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: ScalabilityReport results.csv [max exponent]");
+            System.exit(-1);
+        }
+        double maxExponent = args.length == 2 ? Double.parseDouble(args[1]) : Double.POSITIVE_INFINITY;
+
+        Map<String, List<JmhResults.Result>> series = new LinkedHashMap<>();
+        for (JmhResults.Result r : JmhResults.read(Paths.get(args[0])).getResults()) {
+            if (r.isSecondary() || !r.getParams().containsKey(SIZE))
+                continue;
+            Map<String, String> others = new LinkedHashMap<>(r.getParams());
+            others.remove(SIZE);
+            series.computeIfAbsent(r.getBenchmark() + " " + others, k -> new ArrayList<>()).add(r);
+        }
+
+        int superLinear = 0;
+        for (Map.Entry<String, List<JmhResults.Result>> e : series.entrySet()) {
+            List<JmhResults.Result> results = e.getValue();
+            results.sort((a, b) -> Long.compare(size(a), size(b)));
+            System.out.println(e.getKey());
+            System.out.printf("  %10s %14s %14s %16s %9s\n", "size", "score", "error", "score per node", "exponent");
+            for (int i = 0; i < results.size(); i++) {
+                JmhResults.Result r = results.get(i);
+                String exponent = "";
+                if (i > 0) {
+                    JmhResults.Result p = results.get(i - 1);
+                    double x = Math.log(r.getScore() / p.getScore()) / Math.log((double) size(r) / size(p));
+                    exponent = String.format("%.2f", x);
+                    if (x > maxExponent) {
+                        exponent += " !";
+                        superLinear++;
+                    }
+                }
+                System.out.printf("  %10d %14.6g %14.6g %16.6g %9s %s\n", size(r), r.getScore(), r.getError(),
+                        r.getScore() / size(r), exponent, r.getUnit());
+            }
+        }
+
+        if (superLinear > 0) {
+            System.out.printf("%d growth exponents above %.2f\n", superLinear, maxExponent);
+            System.exit(1);
+        }
+    }
+
+    private static long size(JmhResults.Result r) {
+        return Long.parseLong(r.getParams().get(SIZE));
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random trees of a given size and shape, and random edits of them, to see how the
+ * matchers scale beyond the few real file pairs of the benchmark. The same seed always gives the
+ * same trees and edits.
+ */
+public final class SyntheticTrees {
+
+    private static final int LEAF_TYPES = 8;
+
+    private static final int INNER_TYPES = 16;
+
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final Random random;
+
+    private final int vocabulary;
+
+    public SyntheticTrees(long seed) {
+        this(seed, 1000);
+    }
+
+    /**
+     * @param vocabulary the number of distinct labels of the leaves: the smaller, the more
+     *     ambiguous the matching.
+     */
+    public SyntheticTrees(long seed, int vocabulary) {
+        this.random = new Random(seed);
+        this.vocabulary = vocabulary;
+    }
+
+    /**
+     * Generates a tree of exactly size nodes, in which no node has more than fanOut children nor
+     * is deeper than maxDepth. Each node is attached to a node drawn at random among the ones
+     * still accepting children, so that small fan-outs give deep trees and large ones wide trees.
+     *
+     * @throws IllegalArgumentException if the bounds cannot hold size nodes.
+     */
+    public TreeContext generate(int size, int fanOut, int maxDepth) {
+        if (size < 1 || fanOut < 1 || maxDepth < 0)
+            throw new IllegalArgumentException("Invalid tree shape: " + size + " nodes, fan-out "
+                    + fanOut + ", depth " + maxDepth);
+
+        int[] parents = new int[size];
+        int[] children = new int[size];
+        int[] depths = new int[size];
+        int[] open = new int[size];
+        int openCount = 0;
+        parents[0] = -1;
+        if (maxDepth > 0)
+            open[openCount++] = 0;
+        for (int i = 1; i < size; i++) {
+            if (openCount == 0)
+                throw new IllegalArgumentException(String.format(
+                        "A tree of fan-out %d and depth %d cannot have %d nodes", fanOut, maxDepth, size));
+            int slot = random.nextInt(openCount);
+            int parent = open[slot];
+            parents[i] = parent;
+            depths[i] = depths[parent] + 1;
+            if (++children[parent] == fanOut)
+                open[slot] = open[--openCount];
+            if (depths[i] < maxDepth)
+                open[openCount++] = i;
+        }
+
+        TreeContext ctx = new TreeContext();
+        ITree[] trees = new ITree[size];
+        for (int i = 0; i < size; i++) {
+            trees[i] = children[i] == 0 ? newLeaf(ctx) : newInnerNode(ctx);
+            if (i > 0)
+                trees[parents[i]].addChild(trees[i]);
+        }
+        ctx.setRoot(trees[0]);
+        ctx.validate();
+        return ctx;
+    }
+
+    /**
+     * Applies random edits to a copy of the given tree, the kind of each edit being drawn
+     * according to the weights of the mix. Deletions and updates apply to leaves, and moves to
+     * subtrees that do not contain their target. An edit drawn on a node it does not apply to is
+     * drawn again, so fewer edits are only applied when the tree becomes too small for the mix.
+     * The given tree is left untouched.
+     */
+    public TreeContext edit(TreeContext src, int edits, EditMix mix) {
+        TreeContext dst = src.deriveTree();
+        List<ITree> nodes = new ArrayList<>(dst.getRoot().getTrees());
+        int applied = 0;
+        for (int attempts = 0; applied < edits && attempts < MAX_ATTEMPTS * edits; attempts++)
+            if (apply(mix.draw(random), dst, nodes))
+                applied++;
+        dst.validate();
+        return dst;
+    }
+
+    private boolean apply(Edit edit, TreeContext ctx, List<ITree> nodes) {
+        switch (edit) {
+            case INSERT:
+                return insert(ctx, nodes);
+            case DELETE:
+                return delete(nodes);
+            case UPDATE:
+                return update(nodes);
+            default:
+                return move(nodes);
+        }
+    }
+
+    private boolean insert(TreeContext ctx, List<ITree> nodes) {
+        ITree parent = nodes.get(random.nextInt(nodes.size()));
+        ITree leaf = newLeaf(ctx);
+        if (parent.isLeaf()) {
+            // a leaf becoming an inner node keeps its position but loses its label
+            parent.setType(LEAF_TYPES + random.nextInt(INNER_TYPES));
+            parent.setLabel(ITree.NO_LABEL);
+        }
+        parent.insertChild(leaf, random.nextInt(parent.getChildren().size() + 1));
+        nodes.add(leaf);
+        return true;
+    }
+
+    private boolean delete(List<ITree> nodes) {
+        if (nodes.size() < 2)
+            return false;
+        int index = 1 + random.nextInt(nodes.size() - 1);
+        ITree node = nodes.get(index);
+        if (!node.isLeaf())
+            return false;
+        node.getParent().getChildren().remove(node.positionInParent());
+        node.setParent(null);
+        nodes.set(index, nodes.get(nodes.size() - 1));
+        nodes.remove(nodes.size() - 1);
+        return true;
+    }
+
+    private boolean update(List<ITree> nodes) {
+        ITree node = nodes.get(random.nextInt(nodes.size()));
+        if (!node.isLeaf())
+            return false;
+        node.setLabel(newLabel());
+        return true;
+    }
+
+    private boolean move(List<ITree> nodes) {
+        if (nodes.size() < 2)
+            return false;
+        ITree node = nodes.get(1 + random.nextInt(nodes.size() - 1));
+        ITree target = nodes.get(random.nextInt(nodes.size()));
+        if (target.isLeaf() || target == node.getParent())
+            return false;
+        for (ITree t = target; t != null; t = t.getParent())
+            if (t == node)
+                return false;
+        node.getParent().getChildren().remove(node.positionInParent());
+        target.insertChild(node, random.nextInt(target.getChildren().size() + 1));
+        return true;
+    }
+
+    private ITree newLeaf(TreeContext ctx) {
+        int type = random.nextInt(LEAF_TYPES);
+        return ctx.createTree(type, newLabel(), "Leaf" + type);
+    }
+
+    private ITree newInnerNode(TreeContext ctx) {
+        int type = LEAF_TYPES + random.nextInt(INNER_TYPES);
+        return ctx.createTree(type, ITree.NO_LABEL, "Node" + type);
+    }
+
+    private String newLabel() {
+        return "v" + random.nextInt(vocabulary);
+    }
+
+    public enum Edit {
+        INSERT, DELETE, UPDATE, MOVE
+    }
+
+    /**
+     * The relative weights of the kinds of edits, written as "insert:delete:update:move".
+     */
+    public static final class EditMix {
+
+        private final int[] weights;
+
+        private final int total;
+
+        public EditMix(int insert, int delete, int update, int move) {
+            weights = new int[] {insert, delete, update, move};
+            int sum = 0;
+            for (int w : weights) {
+                if (w < 0)
+                    throw new IllegalArgumentException("Negative weight in edit mix: " + this);
+                sum += w;
+            }
+            if (sum == 0)
+                throw new IllegalArgumentException("Empty edit mix");
+            total = sum;
+        }
+
+        public static EditMix parse(String mix) {
+            String[] parts = mix.split(":");
+            if (parts.length != 4)
+                throw new IllegalArgumentException("Expected insert:delete:update:move weights, got " + mix);
+            return new EditMix(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        }
+
+        Edit draw(Random random) {
+            int r = random.nextInt(total);
+            for (int i = 0; i < weights.length; i++) {
+                if (r < weights[i])
+                    return Edit.values()[i];
+                r -= weights[i];
+            }
+            throw new IllegalStateException();
+        }
+
+        @Override
+        public String toString() {
+            return weights[0] + ":" + weights[1] + ":" + weights[2] + ":" + weights[3];
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtree.dist;
+
+import com.github.gumtreediff.io.TreeIoUtils;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cache of the trees of the XML dumps of the corpus in a compact binary form, much faster to
+ * read than the XML. A cached tree is only used while the size and modification time of its
+ * dump are the ones recorded in the cache. The types, labels, type labels, positions and lengths
+ * of the nodes are kept, the other metadata being dropped.
+ */
+class TreeCache {
+
+    private static final int MAGIC = 0x47544231; // GTB1
+
+    private final Path dir;
+
+    TreeCache(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * @return the tree of the given XML dump, read from the cache when it is up to date, and
+     *     cached otherwise.
+     */
+    TreeContext load(Path xml) throws IOException {
+        Path cached = dir.resolve(xml.getFileName().toString() + ".bin");
+        long size = Files.size(xml);
+        long modified = Files.getLastModifiedTime(xml).toMillis();
+        if (Files.isRegularFile(cached)) {
+            TreeContext ctx = read(cached, size, modified);
+            if (ctx != null)
+                return ctx;
+        }
+        TreeContext ctx = TreeIoUtils.fromXml().generateFromFile(xml.toString());
+        Files.createDirectories(dir);
+        // Written aside then moved, since several threads may cache the same tree.
+        Path tmp = Files.createTempFile(dir, xml.getFileName().toString(), ".tmp");
+        write(ctx, tmp, size, modified);
+        Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return ctx;
+    }
+
+    /**
+     * Writes the nodes in pre-order, each one with its number of children.
+     */
+    static void write(TreeContext ctx, Path file, long size, long modified) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeLong(size);
+            out.writeLong(modified);
+            Set<Integer> types = new HashSet<>();
+            Deque<ITree> stack = new ArrayDeque<>();
+            stack.push(ctx.getRoot());
+            while (!stack.isEmpty()) {
+                ITree t = stack.pop();
+                out.writeInt(t.getType());
+                boolean newType = types.add(t.getType());
+                out.writeBoolean(newType);
+                if (newType)
+                    writeString(out, ctx.getTypeLabel(t));
+                writeString(out, t.getLabel());
+                out.writeInt(t.getPos());
+                out.writeInt(t.getLength());
+                out.writeInt(t.getChildren().size());
+                for (int i = t.getChildren().size() - 1; i >= 0; i--)
+                    stack.push(t.getChildren().get(i));
+            }
+        }
+    }
+
+    /**
+     * @return the cached tree, or null if the cache does not match the given size and modification time.
+     */
+    static TreeContext read(Path file, long size, long modified) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readLong() != size || in.readLong() != modified)
+                return null;
+            TreeContext ctx = new TreeContext();
+            // The parents still missing children, and their number of missing children.
+            Deque<ITree> parents = new ArrayDeque<>();
+            Deque<int[]> missing = new ArrayDeque<>();
+            do {
+                int type = in.readInt();
+                String typeLabel = in.readBoolean() ? readString(in) : null;
+                ITree t = ctx.createTree(type, readString(in), typeLabel);
+                t.setPos(in.readInt());
+                t.setLength(in.readInt());
+                int children = in.readInt();
+                if (parents.isEmpty())
+                    ctx.setRoot(t);
+                else {
+                    parents.peek().addChild(t);
+                    if (--missing.peek()[0] == 0) {
+                        parents.pop();
+                        missing.pop();
+                    }
+                }
+                if (children > 0) {
+                    parents.push(t);
+                    missing.push(new int[] {children});
+                }
+            } while (!parents.isEmpty());
+            ctx.validate();
+            return ctx;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -20,16 +20,38 @@
 
 package com.github.gumtreediff.client.diff;
 
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.actions.model.Action;
 import com.github.gumtreediff.client.Option;
 import com.github.gumtreediff.client.Client;
 import com.github.gumtreediff.gen.Generators;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.IdenticalTreesMatcher;
+import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.matchers.MatchingBudget;
+import com.github.gumtreediff.matchers.TextDiffMatcher;
+import com.github.gumtreediff.metrics.DiffMetrics.Counter;
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
+import com.github.gumtreediff.metrics.MetricsRegistry;
+import com.github.gumtreediff.metrics.RetainedSize;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.FastPaths;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.ParallelParsing;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 
 public abstract class AbstractDiffClient<O extends AbstractDiffClient.Options> extends Client {
 
@@ -43,6 +65,8 @@ public abstract class AbstractDiffClient<O extends AbstractDiffClient.Options> e
         public ArrayList<String> generators = new ArrayList<>();
         public String src;
         public String dst;
+        public String metrics;
+        public boolean memory;
 
         @Override
         public Option[] values() {
@@ -59,6 +83,27 @@ public abstract class AbstractDiffClient<O extends AbstractDiffClient.Options> e
                             generators.add(args[0]);
                         }
                     },
+                    new Option("--parallel-parse", "Parse both files concurrently.", 0) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            if (!ParallelParsing.isEnabled())
+                                ParallelParsing.setExecutor(ParallelParsing.newPool(1));
+                        }
+                    },
+                    new Option("--metrics", "Write the timings and counters of the diff as JSON to the given file.",
+                            1) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            metrics = args[0];
+                        }
+                    },
+                    new Option("--memory", "Measure the memory retained and allocated by the diff, and print the "
+                            + "metrics (to standard error unless --metrics is given).", 0) {
+                        @Override
+                        protected void process(String name, String[] args) {
+                            memory = true;
+                        }
+                    },
                     new Option.Help(this) {
                         @Override
                         public void process(String name, String[] args) {
@@ -77,6 +122,14 @@ public abstract class AbstractDiffClient<O extends AbstractDiffClient.Options> e
 
     protected abstract O newOptions();
 
+    /**
+     * @return whether the client diffs the given files itself, and thus writes the metrics of the
+     *     diff (see {@link #writeMetrics()}).
+     */
+    protected boolean hasMetrics() {
+        return true;
+    }
+
     public AbstractDiffClient(String[] args) {
         super(args);
         opts = newOptions();
@@ -91,23 +144,140 @@ public abstract class AbstractDiffClient<O extends AbstractDiffClient.Options> e
         if (Option.Verbose.verbose) {
             opts.dump(System.out);
         }
+
+        if (opts.metrics != null || opts.memory) {
+            if (!hasMetrics())
+                throw new Option.OptionException("--metrics and --memory are not supported by this client.", opts);
+            metrics = new MetricsRegistry();
+            Instrumentation.setMemoryAccounting(opts.memory);
+            Instrumentation.setListener(metrics);
+            Instrumentation.startDiff(opts.src + " " + opts.dst);
+        }
     }
 
     ///////////////////
     // TODO after this line it should be rewrote in a better way
     private Matcher matcher;
+    private MetricsRegistry metrics;
 
     protected Matcher matchTrees() {
         Matchers matchers = Matchers.getInstance();
         if (matcher != null)
             return matcher;
-        matcher = (opts.matcher == null)
-                ? matchers.getMatcher(getSrcTreeContext().getRoot(), getDstTreeContext().getRoot())
-                : matchers.getMatcher(opts.matcher, getSrcTreeContext().getRoot(), getDstTreeContext().getRoot());
+        boolean sameContent = src == null && dst == null
+                && FastPaths.haveSameContentQuietly(new File(opts.src), new File(opts.dst));
+        if (!sameContent)
+            parseTrees();
+        if (sameContent) {
+            // Same bytes on both sides: parse once and reuse a copy of the tree.
+            dst = getSrcTreeContext().deriveTree();
+            FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+            matcher = new IdenticalTreesMatcher(getSrcTreeContext().getRoot(), dst.getRoot(), new MappingStore());
+        } else if (IdenticalTreesMatcher.areIdentical(getSrcTreeContext().getRoot(), getDstTreeContext().getRoot())) {
+            FastPaths.record(FastPaths.Kind.ISOMORPHIC_TREES);
+            matcher = new IdenticalTreesMatcher(getSrcTreeContext().getRoot(), getDstTreeContext().getRoot(),
+                    new MappingStore());
+        } else {
+            FastPaths.record(FastPaths.Kind.FULL_DIFF);
+            if (TEXT_GUIDED_MATCHER.equals(opts.matcher))
+                attachSources();
+            matcher = (opts.matcher == null)
+                    ? matchers.getMatcher(getSrcTreeContext().getRoot(), getDstTreeContext().getRoot())
+                    : matchers.getMatcher(opts.matcher, getSrcTreeContext().getRoot(), getDstTreeContext().getRoot());
+        }
         matcher.match();
+        if (Instrumentation.isEnabled()) {
+            Instrumentation.count(Counter.SRC_NODES, getSrcTreeContext().getRoot().getSize());
+            Instrumentation.count(Counter.DST_NODES, getDstTreeContext().getRoot().getSize());
+            Instrumentation.count(Counter.MAPPINGS, matcher.getMappings().asSet().size());
+        }
+        if (Instrumentation.isMemoryAccounting()) {
+            Instrumentation.count(Counter.SRC_RETAINED_BYTES, RetainedSize.of(getSrcTreeContext()));
+            Instrumentation.count(Counter.DST_RETAINED_BYTES, RetainedSize.of(getDstTreeContext()));
+            Instrumentation.count(Counter.MAPPINGS_RETAINED_BYTES, RetainedSize.of(matcher.getMappings()));
+        }
+        if (matcher instanceof CompositeMatchers.BudgetedGumtree
+                && ((CompositeMatchers.BudgetedGumtree) matcher).isDegraded())
+            System.err.println("Matching budget exceeded ("
+                    + ((CompositeMatchers.BudgetedGumtree) matcher).getBudget().getTriggers()
+                    + "), mappings are incomplete.");
+        if (Option.Verbose.verbose) {
+            System.err.println(FastPaths.report());
+            System.err.println(MatchingBudget.report());
+        }
         return matcher;
     }
 
+    private static final String TEXT_GUIDED_MATCHER = "gumtree-text";
+
+    private void attachSources() {
+        try {
+            getSrcTreeContext().getRoot().setMetadata(TextDiffMatcher.SOURCE,
+                    new String(Files.readAllBytes(Paths.get(opts.src)), StandardCharsets.UTF_8));
+            getDstTreeContext().getRoot().setMetadata(TextDiffMatcher.SOURCE,
+                    new String(Files.readAllBytes(Paths.get(opts.dst)), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compute the edit script of the given matcher, skipping the action generator
+     * when the trees have been detected as identical.
+     */
+    protected List<Action> generateActions(Matcher m) {
+        if (m instanceof IdenticalTreesMatcher)
+            return new ArrayList<>();
+        ActionGenerator g = new ActionGenerator(getSrcTreeContext().getRoot(),
+                getDstTreeContext().getRoot(), m.getMappings());
+        List<Action> actions = g.generate();
+        if (Instrumentation.isMemoryAccounting())
+            Instrumentation.count(Counter.ACTIONS_RETAINED_BYTES, RetainedSize.of(actions));
+        return actions;
+    }
+
+    /**
+     * Write the output of the diff, measured as its serialization, then the metrics of the diff
+     * when they have been requested.
+     */
+    protected void writeOutput(Output output) {
+        long start = Instrumentation.start(Phase.SERIALIZATION);
+        try {
+            output.write();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        Instrumentation.end(Phase.SERIALIZATION, start);
+        writeMetrics();
+    }
+
+    protected interface Output {
+        void write() throws Exception;
+    }
+
+    /**
+     * End the diff and write its metrics, when they have been requested.
+     */
+    protected void writeMetrics() {
+        if (metrics == null)
+            return;
+        Instrumentation.endDiff();
+        try {
+            if (opts.metrics == null) {
+                Writer w = new OutputStreamWriter(System.err, StandardCharsets.UTF_8);
+                metrics.writeJson(w);
+                w.write(System.lineSeparator());
+                w.flush();
+            } else {
+                try (Writer w = Files.newBufferedWriter(Paths.get(opts.metrics), StandardCharsets.UTF_8)) {
+                    metrics.writeJson(w);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     protected TreeContext getSrcTreeContext() {
         if (src == null)
             src = getTreeContext(opts.src);
@@ -120,17 +290,42 @@ public abstract class AbstractDiffClient<O extends AbstractDiffClient.Options> e
         return dst;
     }
 
+    /**
+     * Parse the source and destination files, concurrently when parallel parsing is enabled
+     * (see {@link ParallelParsing}). When one of them cannot be parsed, both are left to the
+     * sequential parsing, which reports the failure.
+     */
+    private void parseTrees() {
+        if (src != null || dst != null || !ParallelParsing.isEnabled())
+            return;
+        Generators generators = Generators.getInstance();
+        long start = Instrumentation.start(Phase.PARSE);
+        try {
+            Pair<TreeContext, TreeContext> trees = ParallelParsing.parseBoth(
+                    () -> parse(generators, opts.src), () -> parse(generators, opts.dst));
+            src = trees.getFirst();
+            dst = trees.getSecond();
+        } catch (IOException e) {
+            // Parsed again by getSrcTreeContext() and getDstTreeContext().
+        }
+        Instrumentation.end(Phase.PARSE, start);
+    }
+
     private TreeContext getTreeContext(String file) {
+        long start = Instrumentation.start(Phase.PARSE);
+        TreeContext t = null;
         try {
-            TreeContext t;
-            if (opts.generators.isEmpty())
-                t = Generators.getInstance().getTree(file);
-            else
-                t = Generators.getInstance().getTree(opts.generators.get(0), file);
-            return t;
+            t = parse(Generators.getInstance(), file);
         } catch (IOException e) {
             e.printStackTrace();
         }
-        return null;
+        Instrumentation.end(Phase.PARSE, start);
+        return t;
+    }
+
+    private TreeContext parse(Generators generators, String file) throws IOException {
+        if (opts.generators.isEmpty())
+            return generators.getTree(file);
+        return generators.getTree(opts.generators.get(0), file);
     }
 }
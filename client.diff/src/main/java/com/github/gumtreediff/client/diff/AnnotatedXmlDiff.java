@@ -65,13 +65,9 @@ public class AnnotatedXmlDiff extends AbstractDiffClient<AnnotatedXmlDiff.Option
     @Override
     public void run() {
         Matcher m = matchTrees();
-        try {
-            TreeIoUtils.toAnnotatedXml((opts.isSrc)
-                            ? getSrcTreeContext()
-                            : getDstTreeContext(), opts.isSrc, m.getMappings()
-            ).writeTo(System.out);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        writeOutput(() -> TreeIoUtils.toAnnotatedXml((opts.isSrc)
+                        ? getSrcTreeContext()
+                        : getDstTreeContext(), opts.isSrc, m.getMappings()
+        ).writeTo(System.out));
     }
 }
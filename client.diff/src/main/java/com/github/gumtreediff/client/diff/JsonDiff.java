@@ -20,7 +20,6 @@
 
 package com.github.gumtreediff.client.diff;
 
-import com.github.gumtreediff.actions.ActionGenerator;
 import com.github.gumtreediff.actions.model.Action;
 import com.github.gumtreediff.client.Register;
 import com.github.gumtreediff.io.ActionsIoUtils;
@@ -44,14 +43,7 @@ public class JsonDiff extends AbstractDiffClient<AbstractDiffClient.Options> {
     @Override
     public void run() {
         Matcher m = matchTrees();
-        ActionGenerator g = new ActionGenerator(getSrcTreeContext().getRoot(),
-                getDstTreeContext().getRoot(), m.getMappings());
-        g.generate();
-        List<Action> actions = g.getActions();
-        try {
-            ActionsIoUtils.toJson(getSrcTreeContext(), actions, m.getMappings()).writeTo(System.out);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        List<Action> actions = generateActions(m);
+        writeOutput(() -> ActionsIoUtils.toJson(getSrcTreeContext(), actions, m.getMappings()).writeTo(System.out));
     }
 }
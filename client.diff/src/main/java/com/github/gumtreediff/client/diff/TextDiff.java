@@ -20,7 +20,6 @@
 
 package com.github.gumtreediff.client.diff;
 
-import com.github.gumtreediff.actions.ActionGenerator;
 import com.github.gumtreediff.actions.model.Action;
 import com.github.gumtreediff.client.Option;
 import com.github.gumtreediff.client.Register;
@@ -96,20 +95,15 @@ public class TextDiff extends AbstractDiffClient<TextDiff.Options> {
     @Override
     public void run() {
         Matcher m = matchTrees();
-        ActionGenerator g = new ActionGenerator(getSrcTreeContext().getRoot(),
-                getDstTreeContext().getRoot(), m.getMappings());
-        g.generate();
-        List<Action> actions = g.getActions();
-        try {
+        List<Action> actions = generateActions(m);
+        writeOutput(() -> {
             ActionsIoUtils.ActionSerializer serializer = opts.format.getSerializer(
                     getSrcTreeContext(), actions, m.getMappings());
             if (opts.output == null)
                 serializer.writeTo(System.out);
             else
                 serializer.writeTo(opts.output);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        });
     }
 
     enum OutputFormat { // TODO make a registry for that also ?
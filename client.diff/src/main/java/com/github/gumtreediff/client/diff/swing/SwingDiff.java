@@ -37,6 +37,7 @@ public final class SwingDiff extends AbstractDiffClient<AbstractDiffClient.Optio
     @Override
     public void run() {
         final Matcher matcher = matchTrees();
+        writeMetrics();
         javax.swing.SwingUtilities.invokeLater(new Runnable() {
             public void run() {
                 JFrame frame = new JFrame("GumTree");
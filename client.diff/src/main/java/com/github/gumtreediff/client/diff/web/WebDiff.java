@@ -77,6 +77,12 @@ public class WebDiff extends AbstractDiffClient<WebDiff.Options> {
         return new Options();
     }
 
+    @Override
+    protected boolean hasMetrics() {
+        // The diffs are computed by the views of the server.
+        return false;
+    }
+
     @Override
     public void run() {
         DirectoryComparator comparator = new DirectoryComparator(opts.src, opts.dst);
@@ -23,9 +23,15 @@ package com.github.gumtreediff.actions;
 import com.github.gumtreediff.actions.model.*;
 import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.metrics.DiffMetrics.Counter;
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
 import com.github.gumtreediff.tree.AbstractTree;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.Label;
+import com.github.gumtreediff.tree.TreeCursor;
 import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.utils.Cancellation;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 
@@ -64,10 +70,12 @@ public class ActionGenerator {
         this.origDst = dst;
 
         origSrcTrees = new TIntObjectHashMap<>();
-        for (ITree t: origSrc.getTrees())
+        TreeCursor cursor = TreeCursor.preOrder(origSrc);
+        for (ITree t = cursor.next(); t != null; t = cursor.next())
             origSrcTrees.put(t.getId(), t);
         cpySrcTrees = new TIntObjectHashMap<>();
-        for (ITree t: newSrc.getTrees())
+        cursor.resetPreOrder(newSrc);
+        for (ITree t = cursor.next(); t != null; t = cursor.next())
             cpySrcTrees.put(t.getId(), t);
 
         origMappings = new MappingStore();
@@ -81,6 +89,7 @@ public class ActionGenerator {
     }
 
     public List<Action> generate() {
+        long start = Instrumentation.start(Phase.ACTIONS);
         ITree srcFakeRoot = new AbstractTree.FakeTree(newSrc);
         ITree dstFakeRoot = new AbstractTree.FakeTree(origDst);
         newSrc.setParent(srcFakeRoot);
@@ -95,6 +104,7 @@ public class ActionGenerator {
 
         List<ITree> bfsDst = TreeUtils.breadthFirst(origDst);
         for (ITree x: bfsDst) {
+            Cancellation.checkpoint();
             ITree w = null;
             ITree y = x.getParent();
             ITree z = newMappings.getSrc(y);
@@ -118,7 +128,7 @@ public class ActionGenerator {
                 w = newMappings.getSrc(x);
                 if (!x.equals(origDst)) { // TODO => x != origDst // Case of the root
                     ITree v = w.getParent();
-                    if (!w.getLabel().equals(x.getLabel())) {
+                    if (!Label.contentEquals(w.getLabelSequence(), x.getLabelSequence())) {
                         actions.add(new Update(origSrcTrees.get(w.getId()), x));
                         w.setLabel(x.getLabel());
                     }
@@ -142,13 +152,16 @@ public class ActionGenerator {
             alignChildren(w, x);
         }
 
-        for (ITree w : newSrc.postOrder()) {
+        TreeCursor cursor = TreeCursor.postOrder(newSrc);
+        for (ITree w = cursor.next(); w != null; w = cursor.next()) {
             if (!newMappings.hasSrc(w)) {
                 actions.add(new Delete(origSrcTrees.get(w.getId())));
                 //w.getParent().getChildren().remove(w);
             }
         }
 
+        Instrumentation.end(Phase.ACTIONS, start);
+        Instrumentation.count(Counter.ACTIONS, actions.size());
         //FIXME should ensure isomorphism.
         return actions;
     }
@@ -23,6 +23,8 @@ package com.github.gumtreediff.gen;
 import com.github.gumtreediff.tree.TreeContext;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class TreeGenerator {
 
@@ -44,6 +46,18 @@ public abstract class TreeGenerator {
         return generateFromReader(new FileReader(file));
     }
 
+    /**
+     * Parse several files. Generators able to share work between files override this method,
+     * the default implementation parses them one after the other.
+     * @return the tree of each file, in the order of the given files.
+     */
+    public List<TreeContext> generateFromFiles(List<File> files) throws IOException {
+        List<TreeContext> trees = new ArrayList<>(files.size());
+        for (File file : files)
+            trees.add(generateFromFile(file));
+        return trees;
+    }
+
     public TreeContext generateFromStream(InputStream stream) throws IOException {
         return generateFromReader(new InputStreamReader(stream));
     }
@@ -20,11 +20,10 @@
 
 package com.github.gumtreediff.io;
 
+import com.github.gumtreediff.utils.FastPaths;
 import com.github.gumtreediff.utils.Pair;
 
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
@@ -131,23 +130,7 @@ public class DirectoryComparator {
     }
 
     public boolean hasChanged(String s1, String s2) throws IOException {
-        File f1 = toSrcFile(s1);
-        File f2 = toDstFile(s2);
-        long l1 = Files.size(f1.toPath());
-        long l2 = Files.size(f2.toPath());
-        if (l1 != l2) return true;
-        else {
-            try (DataInputStream dis1 = new DataInputStream(new FileInputStream(f1));
-                 DataInputStream dis2 = new DataInputStream(new FileInputStream(f2))) {
-                int c1, c2;
-                while ((c1 = dis1.read()) != -1) {
-                    c2 = dis2.read();
-                    if (c1 != c2)
-                        return true;
-                }
-                return false;
-            }
-        }
+        return !FastPaths.haveSameContent(toSrcFile(s1), toDstFile(s2));
     }
 
     public static class AllFilesVisitor extends SimpleFileVisitor<Path> {
@@ -20,6 +20,8 @@
 
 package com.github.gumtreediff.matchers;
 
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
 import com.github.gumtreediff.tree.ITree;
 
 public class CompositeMatcher extends Matcher {
@@ -32,9 +34,24 @@ public class CompositeMatcher extends Matcher {
     }
 
     public void match() {
-        for (Matcher matcher : matchers) {
+        for (int i = 0; i < matchers.length; i++) {
+            Matcher matcher = matchers[i];
+            if (isDelegating(matcher)) {
+                matcher.match();
+                continue;
+            }
+            Phase phase = i == 0 ? Phase.TOP_DOWN_MATCH : Phase.BOTTOM_UP_MATCH;
+            long start = Instrumentation.start(phase);
             matcher.match();
+            Instrumentation.end(phase, start);
         }
     }
 
+    /**
+     * @return true if the given matcher runs other composite matchers, which measure their own phases.
+     */
+    private static boolean isDelegating(Matcher matcher) {
+        return matcher instanceof CompositeMatcher || matcher instanceof PrunedTreesMatcher;
+    }
+
 }
@@ -25,9 +25,13 @@ import com.github.gumtreediff.matchers.heuristic.cd.ChangeDistillerBottomUpMatch
 import com.github.gumtreediff.matchers.heuristic.cd.ChangeDistillerLeavesMatcher;
 import com.github.gumtreediff.matchers.heuristic.gt.CompleteBottomUpMatcher;
 import com.github.gumtreediff.matchers.heuristic.XyBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.BudgetedBottomUpMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.BudgetedSubtreeMatcher;
 import com.github.gumtreediff.matchers.heuristic.gt.CliqueSubtreeMatcher;
 import com.github.gumtreediff.matchers.heuristic.gt.GreedyBottomUpMatcher;
 import com.github.gumtreediff.matchers.heuristic.gt.GreedySubtreeMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.HungarianSubtreeMatcher;
+import com.github.gumtreediff.matchers.heuristic.gt.IdenticalMembersMatcher;
 import com.github.gumtreediff.tree.ITree;
 
 public class CompositeMatchers {
@@ -43,6 +47,66 @@ public class CompositeMatchers {
         }
     }
 
+    /**
+     * Classic GumTree restricted to the changed regions: the identical top-level members are
+     * paired first using their hashes, and the classic matcher only runs on what remains.
+     */
+    @Register(id = "gumtree-narrowed")
+    public static class NarrowedGumtree extends CompositeMatcher {
+
+        public NarrowedGumtree(ITree src, ITree dst, MappingStore store) {
+            super(src, dst, store, new Matcher[]{
+                    new IdenticalMembersMatcher(src, dst, store),
+                    new PrunedTreesMatcher(src, dst, store, ClassicGumtree::new)
+            });
+        }
+    }
+
+    @Register(id = "gumtree-text")
+    public static class TextGuidedGumtree extends CompositeMatcher {
+
+        public TextGuidedGumtree(ITree src, ITree dst, MappingStore store) {
+            super(src, dst, store, new Matcher[]{
+                    new TextDiffMatcher(src, dst, store),
+                    new PrunedTreesMatcher(src, dst, store, ClassicGumtree::new)
+            });
+        }
+    }
+
+    /**
+     * Classic GumTree under a {@link MatchingBudget}: when the budget is exceeded, the recovery
+     * phase is skipped, and when the deadline is reached the search of the top-down and bottom-up
+     * phases stops. The mappings found so far are kept, the result being flagged as degraded.
+     */
+    @Register(id = "gumtree-budgeted")
+    public static class BudgetedGumtree extends CompositeMatcher {
+
+        private final MatchingBudget budget;
+
+        public BudgetedGumtree(ITree src, ITree dst, MappingStore store) {
+            this(src, dst, store, MatchingBudget.fromProperties());
+        }
+
+        public BudgetedGumtree(ITree src, ITree dst, MappingStore store, MatchingBudget budget) {
+            super(src, dst, store, new Matcher[]{
+                    new BudgetedSubtreeMatcher(src, dst, store, budget),
+                    new BudgetedBottomUpMatcher(src, dst, store, budget)
+            });
+            this.budget = budget;
+        }
+
+        public MatchingBudget getBudget() {
+            return budget;
+        }
+
+        /**
+         * @return true if some phases have been skipped, the mappings being then incomplete.
+         */
+        public boolean isDegraded() {
+            return budget.isExceeded();
+        }
+    }
+
     @Register(id = "gumtree-complete")
     public static class CompleteGumtreeMatcher extends CompositeMatcher {
 
@@ -54,6 +118,21 @@ public class CompositeMatchers {
         }
     }
 
+    /**
+     * Classic GumTree where the isomorphic subtrees that could be mapped several ways are assigned
+     * optimally, minimizing the total cost of each group instead of taking the best pairs first.
+     */
+    @Register(id = "gumtree-hungarian")
+    public static class HungarianGumtree extends CompositeMatcher {
+
+        public HungarianGumtree(ITree src, ITree dst, MappingStore store) {
+            super(src, dst, store, new Matcher[]{
+                    new HungarianSubtreeMatcher(src, dst, store),
+                    new GreedyBottomUpMatcher(src, dst, store)
+            });
+        }
+    }
+
     @Register(id = "change-distiller")
     public static class ChangeDistiller extends CompositeMatcher {
 
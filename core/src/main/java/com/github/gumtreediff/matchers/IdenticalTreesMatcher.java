@@ -0,0 +1,48 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers;
+
+import com.github.gumtreediff.tree.ITree;
+
+/**
+ * Matcher used when both trees are known to be isomorphic: every node is mapped
+ * to its counterpart without running any heuristic.
+ * @see #areIdentical(ITree, ITree)
+ */
+public class IdenticalTreesMatcher extends Matcher {
+
+    public IdenticalTreesMatcher(ITree src, ITree dst, MappingStore store) {
+        super(src, dst, store);
+    }
+
+    @Override
+    public void match() {
+        addMappingRecursively(src, dst);
+    }
+
+    /**
+     * @return true if the two trees have the same hash and the same hash serialization,
+     *     meaning that their edit script is empty.
+     */
+    public static boolean areIdentical(ITree src, ITree dst) {
+        return src.getHash() == dst.getHash() && src.getSize() == dst.getSize() && src.isIsomorphicTo(dst);
+    }
+}
@@ -21,9 +21,8 @@
 package com.github.gumtreediff.matchers;
 
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeCursor;
 
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -66,44 +65,55 @@ public abstract class Matcher {
     }
 
     protected void addMappingRecursively(ITree src, ITree dst) {
-        List<ITree> srcTrees = src.getTrees();
-        List<ITree> dstTrees = dst.getTrees();
-        for (int i = 0; i < srcTrees.size(); i++) {
-            ITree currentSrcTree = srcTrees.get(i);
-            ITree currentDstTree = dstTrees.get(i);
-            addMapping(currentSrcTree, currentDstTree);
-        }
+        TreeCursor srcTrees = TreeCursor.preOrder(src);
+        TreeCursor dstTrees = TreeCursor.preOrder(dst);
+        for (ITree t = srcTrees.next(); t != null; t = srcTrees.next())
+            addMapping(t, dstTrees.next());
     }
 
     public double chawatheSimilarity(ITree src, ITree dst) {
-        int max = Math.max(src.getDescendants().size(), dst.getDescendants().size());
+        int max = Math.max(numberOfDescendants(src), numberOfDescendants(dst));
         return (double) numberOfCommonDescendants(src, dst) / (double) max;
     }
 
     public double diceSimilarity(ITree src, ITree dst) {
         double c = (double) numberOfCommonDescendants(src, dst);
-        return (2D * c) / ((double) src.getDescendants().size() + (double) dst.getDescendants().size());
+        return (2D * c) / ((double) numberOfDescendants(src) + (double) numberOfDescendants(dst));
     }
 
     public double jaccardSimilarity(ITree src, ITree dst) {
         double num = (double) numberOfCommonDescendants(src, dst);
-        double den = (double) src.getDescendants().size() + (double) dst.getDescendants().size() - num;
+        double den = (double) numberOfDescendants(src) + (double) numberOfDescendants(dst) - num;
         return num / den;
     }
 
+    private static int numberOfDescendants(ITree t) {
+        return t.getSize() - 1;
+    }
+
     protected int numberOfCommonDescendants(ITree src, ITree dst) {
-        Set<ITree> dstDescandants = new HashSet<>(dst.getDescendants());
         int common = 0;
-
-        for (ITree t : src.getDescendants()) {
+        TreeCursor descendants = TreeCursor.descendants(src);
+        for (ITree t = descendants.next(); t != null; t = descendants.next()) {
             ITree m = mappings.getDst(t);
-            if (m != null && dstDescandants.contains(m))
+            if (m != null && isDstDescendant(m, dst))
                 common++;
         }
 
         return common;
     }
 
+    /**
+     * @return true if the first tree is a descendant of the second one, both being destination trees.
+     *     Matchers knowing that the destination tree has post-order ids can answer using these ids.
+     */
+    protected boolean isDstDescendant(ITree t, ITree dst) {
+        for (ITree p = t.getParent(); p != null; p = p.getParent())
+            if (p == dst)
+                return true;
+        return false;
+    }
+
     public boolean isMappingAllowed(ITree src, ITree dst) {
         return src.hasSameType(dst) && !(mappings.hasSrc(src) || mappings.hasDst(dst));
     }
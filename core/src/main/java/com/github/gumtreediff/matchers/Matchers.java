@@ -36,6 +36,9 @@ public class Matchers extends Registry<String, Matcher, Register> {
 
     private Matchers() {
         install(CompositeMatchers.ClassicGumtree.class);
+        install(CompositeMatchers.NarrowedGumtree.class);
+        install(CompositeMatchers.TextGuidedGumtree.class);
+        install(CompositeMatchers.BudgetedGumtree.class);
         install(CompositeMatchers.ChangeDistiller.class);
         install(CompositeMatchers.XyMatcher.class);
     }
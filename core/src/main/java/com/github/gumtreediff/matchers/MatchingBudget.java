@@ -0,0 +1,144 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time and size limits given to a single matching. Expensive phases check the budget
+ * before running and are skipped once it is exceeded, the matching being then flagged as degraded.
+ * Budgets are not thread-safe and should not be shared between matchings.
+ * @see CompositeMatchers.BudgetedGumtree
+ */
+public class MatchingBudget {
+
+    public static final long UNLIMITED = -1L;
+
+    public enum Trigger {
+        /** The deadline has been reached. */
+        DEADLINE,
+        /** The maximal number of nodes given to the recovery phase has been reached. */
+        NODES
+    }
+
+    private static final AtomicLongArray COUNTS = new AtomicLongArray(Trigger.values().length);
+
+    private final long start;
+
+    private final long timeout;
+
+    private final long maxNodes;
+
+    private long nodes;
+
+    private final EnumSet<Trigger> triggers = EnumSet.noneOf(Trigger.class);
+
+    /**
+     * @param timeout the maximal duration of the matching in milliseconds, or {@link #UNLIMITED}.
+     * @param maxNodes the maximal number of nodes handed to the recovery phase
+     *     (i.e. the ZS last chance match), or {@link #UNLIMITED}.
+     */
+    public MatchingBudget(long timeout, long maxNodes) {
+        this.start = System.nanoTime();
+        this.timeout = timeout < 0 ? UNLIMITED : timeout * 1000000L;
+        this.maxNodes = maxNodes < 0 ? Long.MAX_VALUE : maxNodes;
+    }
+
+    public static MatchingBudget unlimited() {
+        return new MatchingBudget(UNLIMITED, UNLIMITED);
+    }
+
+    /**
+     * @return a budget configured with the gt.bgt.timeout (milliseconds) and gt.bgt.nodes properties,
+     *     unlimited by default.
+     */
+    public static MatchingBudget fromProperties() {
+        return new MatchingBudget(Long.parseLong(System.getProperty("gt.bgt.timeout", "-1")),
+                Long.parseLong(System.getProperty("gt.bgt.nodes", "-1")));
+    }
+
+    /**
+     * @return true if the deadline has been reached. The first time it happens, it is reported.
+     */
+    public boolean isExpired() {
+        if (triggers.contains(Trigger.DEADLINE))
+            return true;
+        if (timeout == UNLIMITED || System.nanoTime() - start < timeout)
+            return false;
+        trigger(Trigger.DEADLINE);
+        return true;
+    }
+
+    /**
+     * Consume the given number of nodes if the budget allows it.
+     * @return false if the phase processing these nodes has to be skipped.
+     */
+    public boolean tryConsume(int size) {
+        if (isExpired())
+            return false;
+        if (nodes + size > maxNodes) {
+            trigger(Trigger.NODES);
+            return false;
+        }
+        nodes += size;
+        return true;
+    }
+
+    /**
+     * @return true if at least one phase has been skipped because of this budget.
+     */
+    public boolean isExceeded() {
+        return !triggers.isEmpty();
+    }
+
+    public Set<Trigger> getTriggers() {
+        return EnumSet.copyOf(triggers);
+    }
+
+    private void trigger(Trigger trigger) {
+        if (triggers.add(trigger))
+            COUNTS.incrementAndGet(trigger.ordinal());
+    }
+
+    /**
+     * @return the number of matchings in which the given trigger has fired.
+     */
+    public static long count(Trigger trigger) {
+        return COUNTS.get(trigger.ordinal());
+    }
+
+    public static void reset() {
+        for (Trigger trigger : Trigger.values())
+            COUNTS.set(trigger.ordinal(), 0);
+    }
+
+    /**
+     * @return a one line summary of the counters, e.g. for logging purposes.
+     */
+    public static String report() {
+        StringBuilder b = new StringBuilder("budget exceeded");
+        for (Trigger trigger : Trigger.values())
+            b.append(String.format(", %s: %d", trigger.name().toLowerCase(), count(trigger)));
+        return b.toString();
+    }
+}
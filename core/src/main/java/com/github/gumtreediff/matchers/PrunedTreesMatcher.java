@@ -0,0 +1,125 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers;
+
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Run a delegate matcher on the regions of the trees that are not matched yet.
+ * Subtrees that are entirely mapped in the current store are pruned from copies of
+ * the trees, the delegate matcher is run on these (usually much smaller) copies, and
+ * its mappings are stitched back onto the original nodes using their ids.
+ * Mappings already present in the store always take precedence over the ones found
+ * by the delegate. The trees are expected to be numbered (see {@link ITree#getId()}).
+ */
+public class PrunedTreesMatcher extends Matcher {
+
+    public interface MatcherFactory {
+        Matcher newMatcher(ITree src, ITree dst, MappingStore store);
+    }
+
+    private final MatcherFactory factory;
+
+    public PrunedTreesMatcher(ITree src, ITree dst, MappingStore store, MatcherFactory factory) {
+        super(src, dst, store);
+        this.factory = factory;
+    }
+
+    @Override
+    public void match() {
+        List<ITree> srcPruned = fullyMappedSubtrees(src, true);
+        if (srcPruned.size() == 1 && srcPruned.get(0) == src)
+            return; // Everything is already mapped.
+        List<ITree> dstPruned = fullyMappedSubtrees(dst, false);
+
+        ITree cSrc = prune(src, srcPruned);
+        ITree cDst = prune(dst, dstPruned);
+
+        Matcher m = factory.newMatcher(cSrc, cDst, new MappingStore());
+        m.match();
+
+        TreeMap srcIds = new TreeMap(src);
+        TreeMap dstIds = new TreeMap(dst);
+        for (Mapping mapping : m.getMappings()) {
+            ITree left = srcIds.getTree(mapping.getFirst().getId());
+            ITree right = dstIds.getTree(mapping.getSecond().getId());
+            if (left != null && right != null && !mappings.hasSrc(left) && !mappings.hasDst(right))
+                addMapping(left, right);
+        }
+    }
+
+    /**
+     * @return a copy of the given tree, without the given subtrees. The root is never removed.
+     */
+    private static ITree prune(ITree tree, List<ITree> pruned) {
+        ITree copy = tree.deepCopy();
+        TreeMap copyIds = new TreeMap(copy);
+        for (ITree t : pruned) {
+            if (t == tree)
+                continue;
+            ITree c = copyIds.getTree(t.getId());
+            c.getParent().getChildren().remove(c);
+            c.setParent(null);
+        }
+        copy.refresh();
+        return copy;
+    }
+
+    /**
+     * @return the maximal subtrees whose nodes are all mapped.
+     */
+    private List<ITree> fullyMappedSubtrees(ITree tree, boolean isSrc) {
+        Set<ITree> fullyMapped = new HashSet<>();
+        for (ITree t : tree.postOrder()) {
+            if (!(isSrc ? mappings.hasSrc(t) : mappings.hasDst(t)))
+                continue;
+            boolean full = true;
+            for (ITree c : t.getChildren())
+                if (!fullyMapped.contains(c)) {
+                    full = false;
+                    break;
+                }
+            if (full)
+                fullyMapped.add(t);
+        }
+
+        List<ITree> roots = new ArrayList<>();
+        Deque<ITree> stack = new ArrayDeque<>();
+        stack.push(tree);
+        while (!stack.isEmpty()) {
+            ITree t = stack.pop();
+            if (fullyMapped.contains(t))
+                roots.add(t);
+            else
+                for (ITree c : t.getChildren())
+                    stack.push(c);
+        }
+        return roots;
+    }
+}
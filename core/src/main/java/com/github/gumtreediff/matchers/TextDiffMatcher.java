@@ -0,0 +1,176 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers;
+
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.utils.StringAlgorithms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-matching stage guided by a line-based diff of the raw sources. Every subtree whose
+ * text lies entirely in a region left unchanged by the diff is mapped to the isomorphic
+ * subtree found at the translated position in the destination tree.
+ * Sources are either given explicitly or read from the {@link #SOURCE} metadata of the roots.
+ * When no source is available, or when the sources are too different (more than
+ * {@link #MAX_EDITS} changed lines), this matcher does nothing.
+ */
+public class TextDiffMatcher extends Matcher {
+
+    public static final String SOURCE = "source";
+
+    public static int MAX_EDITS = Integer.parseInt(System.getProperty("gt.tdm.maxd", "2000"));
+
+    private final String srcContent;
+
+    private final String dstContent;
+
+    public TextDiffMatcher(ITree src, ITree dst, MappingStore store) {
+        this(src, dst, store, (String) src.getMetadata(SOURCE), (String) dst.getMetadata(SOURCE));
+    }
+
+    public TextDiffMatcher(ITree src, ITree dst, MappingStore store, String srcContent, String dstContent) {
+        super(src, dst, store);
+        this.srcContent = srcContent;
+        this.dstContent = dstContent;
+    }
+
+    @Override
+    public void match() {
+        if (srcContent == null || dstContent == null)
+            return;
+
+        int[] srcLines = lineStarts(srcContent);
+        int[] dstLines = lineStarts(dstContent);
+        Map<String, Integer> ids = new HashMap<>();
+        List<int[]> matches = StringAlgorithms.myers(
+                lineIds(srcContent, srcLines, ids), lineIds(dstContent, dstLines, ids), MAX_EDITS);
+        if (matches == null)
+            return;
+
+        // Unchanged blocks, as [srcStart, srcEnd, dstStart] in characters.
+        List<int[]> blocks = new ArrayList<>();
+        for (int i = 0; i < matches.size(); ) {
+            int j = i;
+            while (j + 1 < matches.size() && matches.get(j + 1)[0] == matches.get(j)[0] + 1
+                    && matches.get(j + 1)[1] == matches.get(j)[1] + 1)
+                j++;
+            blocks.add(new int[] {srcLines[matches.get(i)[0]], srcLines[matches.get(j)[0] + 1],
+                    dstLines[matches.get(i)[1]]});
+            i = j + 1;
+        }
+        if (blocks.isEmpty())
+            return;
+
+        Map<Long, List<ITree>> dstByPosition = new HashMap<>();
+        for (ITree t : dst.preOrder())
+            if (t.getPos() >= 0 && t.getLength() >= 0)
+                dstByPosition.computeIfAbsent(key(t.getPos(), t.getLength()), k -> new ArrayList<>()).add(t);
+
+        Deque<ITree> stack = new ArrayDeque<>();
+        stack.push(src);
+        while (!stack.isEmpty()) {
+            ITree t = stack.pop();
+            ITree counterpart = counterpart(t, blocks, dstByPosition);
+            if (counterpart != null)
+                addMappingRecursively(t, counterpart);
+            else
+                for (ITree c : t.getChildren())
+                    stack.push(c);
+        }
+    }
+
+    private ITree counterpart(ITree t, List<int[]> blocks, Map<Long, List<ITree>> dstByPosition) {
+        if (t.getPos() < 0 || t.getLength() < 0)
+            return null;
+        int[] block = blockOf(t, blocks);
+        if (block == null)
+            return null;
+        List<ITree> candidates = dstByPosition.get(key(t.getPos() - block[0] + block[2], t.getLength()));
+        if (candidates == null)
+            return null;
+        for (ITree candidate : candidates)
+            if (isMappingAllowed(t, candidate) && t.isIsomorphicTo(candidate))
+                return candidate;
+        return null;
+    }
+
+    private static int[] blockOf(ITree t, List<int[]> blocks) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int[] block = blocks.get(mid);
+            if (t.getPos() < block[0])
+                high = mid - 1;
+            else if (t.getPos() >= block[1])
+                low = mid + 1;
+            else
+                return t.getEndPos() <= block[1] ? block : null;
+        }
+        return null;
+    }
+
+    private static long key(int pos, int length) {
+        return ((long) pos << 32) | (length & 0xffffffffL);
+    }
+
+    /**
+     * @return the offsets of the beginning of each line, followed by the length of the content.
+     */
+    private static int[] lineStarts(String content) {
+        int[] starts = new int[16];
+        int count = 1;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                if (count == starts.length)
+                    starts = Arrays.copyOf(starts, count * 2);
+                starts[count++] = i + 1;
+            }
+        }
+        if (starts[count - 1] != content.length()) {
+            if (count == starts.length)
+                starts = Arrays.copyOf(starts, count + 1);
+            starts[count++] = content.length();
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+    private static int[] lineIds(String content, int[] starts, Map<String, Integer> ids) {
+        int[] lines = new int[starts.length - 1];
+        for (int i = 0; i < lines.length; i++) {
+            String line = content.substring(starts[i], starts[i + 1]);
+            Integer id = ids.get(line);
+            if (id == null) {
+                id = ids.size();
+                ids.put(line, id);
+            }
+            lines[i] = id;
+        }
+        return lines;
+    }
+}
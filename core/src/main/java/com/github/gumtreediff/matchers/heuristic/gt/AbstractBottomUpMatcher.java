@@ -24,8 +24,14 @@ import com.github.gumtreediff.matchers.Mapping;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.matchers.optimal.zs.ZsMatcher;
+import com.github.gumtreediff.metrics.DiffMetrics.Counter;
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeCursor;
 import com.github.gumtreediff.tree.TreeMap;
+import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.utils.Cancellation;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -44,10 +50,13 @@ public abstract class AbstractBottomUpMatcher extends Matcher {
     protected TreeMap mappedSrc;
     protected TreeMap mappedDst;
 
+    private final boolean dstHasPostOrderIds;
+
     public AbstractBottomUpMatcher(ITree src, ITree dst, MappingStore store) {
         super(src, dst, store);
         srcIds = new TreeMap(src);
         dstIds = new TreeMap(dst);
+        dstHasPostOrderIds = TreeUtils.hasPostOrderIds(dst);
 
         mappedSrc = new TreeMap();
         mappedDst = new TreeMap();
@@ -58,8 +67,10 @@ public abstract class AbstractBottomUpMatcher extends Matcher {
     }
 
     protected List<ITree> getDstCandidates(ITree src) {
+        Cancellation.checkpoint();
         List<ITree> seeds = new ArrayList<>();
-        for (ITree c: src.getDescendants()) {
+        TreeCursor descendants = TreeCursor.descendants(src);
+        for (ITree c = descendants.next(); c != null; c = descendants.next()) {
             ITree m = mappings.getDst(c);
             if (m != null) seeds.add(m);
         }
@@ -82,13 +93,18 @@ public abstract class AbstractBottomUpMatcher extends Matcher {
 
     //FIXME checks if it is better or not to remove the already found mappings.
     protected void lastChanceMatch(ITree src, ITree dst) {
+        Cancellation.checkpoint();
+        long start = Instrumentation.start(Phase.LAST_CHANCE_MATCH);
         ITree cSrc = src.deepCopy();
         ITree cDst = dst.deepCopy();
         removeMatched(cSrc, true);
         removeMatched(cDst, false);
 
-        if (cSrc.getSize() < AbstractBottomUpMatcher.SIZE_THRESHOLD
-                || cDst.getSize() < AbstractBottomUpMatcher.SIZE_THRESHOLD) {
+        if ((cSrc.getSize() < AbstractBottomUpMatcher.SIZE_THRESHOLD
+                || cDst.getSize() < AbstractBottomUpMatcher.SIZE_THRESHOLD)
+                && acceptLastChanceMatch(cSrc, cDst)) {
+            Instrumentation.count(Counter.LAST_CHANCE_CALLS, 1);
+            Instrumentation.count(Counter.LAST_CHANCE_NODES, cSrc.getSize() + cDst.getSize());
             Matcher m = new ZsMatcher(cSrc, cDst, new MappingStore());
             m.match();
             for (Mapping candidate: m.getMappings()) {
@@ -114,6 +130,25 @@ public abstract class AbstractBottomUpMatcher extends Matcher {
 
         mappedSrc.putTrees(src);
         mappedDst.putTrees(dst);
+        Instrumentation.end(Phase.LAST_CHANCE_MATCH, start);
+    }
+
+    /**
+     * Called before the optimal matching of the unmatched descendants of two mapped nodes.
+     * @param cSrc the copy of the source node without its matched descendants.
+     * @param cDst the copy of the destination node without its matched descendants.
+     * @return false to skip this matching.
+     */
+    protected boolean acceptLastChanceMatch(ITree cSrc, ITree cDst) {
+        return true;
+    }
+
+    /**
+     * @return true if the search of the containers to map has to stop, the nodes not visited
+     *     yet being left unmapped. Checked once per node.
+     */
+    protected boolean isExpired() {
+        return false;
     }
 
     /**
@@ -132,6 +167,17 @@ public abstract class AbstractBottomUpMatcher extends Matcher {
         return tree;
     }
 
+    /**
+     * Uses the id ranges of the descendants when both trees belong to the destination tree
+     * and this tree has post-order ids.
+     */
+    @Override
+    protected boolean isDstDescendant(ITree t, ITree dst) {
+        if (dstHasPostOrderIds && dstIds.getTree(t.getId()) == t && dstIds.getTree(dst.getId()) == dst)
+            return TreeUtils.isDescendantId(dst, t.getId());
+        return super.isDstDescendant(t, dst);
+    }
+
     @Override
     public boolean isMappingAllowed(ITree src, ITree dst) {
         return src.hasSameType(dst)
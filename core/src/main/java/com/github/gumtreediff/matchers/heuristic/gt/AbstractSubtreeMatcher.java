@@ -24,8 +24,14 @@ import com.github.gumtreediff.matchers.*;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.MultiMappingStore;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.utils.Cancellation;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -49,35 +55,39 @@ public abstract class AbstractSubtreeMatcher extends Matcher {
 
         PriorityTreeList srcTrees = new PriorityTreeList(src);
         PriorityTreeList dstTrees = new PriorityTreeList(dst);
+        boolean[] marksForSrcTrees = new boolean[0];
+        boolean[] marksForDstTrees = new boolean[0];
 
-        while (srcTrees.peekHeight() != -1 && dstTrees.peekHeight() != -1) {
+        while (srcTrees.peekHeight() != -1 && dstTrees.peekHeight() != -1 && !isExpired()) {
+            Cancellation.checkpoint();
             while (srcTrees.peekHeight() != dstTrees.peekHeight())
                 popLarger(srcTrees, dstTrees);
 
             List<ITree> currentHeightSrcTrees = srcTrees.pop();
             List<ITree> currentHeightDstTrees = dstTrees.pop();
 
-            boolean[] marksForSrcTrees = new boolean[currentHeightSrcTrees.size()];
-            boolean[] marksForDstTrees = new boolean[currentHeightDstTrees.size()];
-
-            for (int i = 0; i < currentHeightSrcTrees.size(); i++) {
-                for (int j = 0; j < currentHeightDstTrees.size(); j++) {
-                    ITree src = currentHeightSrcTrees.get(i);
-                    ITree dst = currentHeightDstTrees.get(j);
-
-                    if (src.isIsomorphicTo(dst)) {
-                        multiMappings.link(src, dst);
-                        marksForSrcTrees[i] = true;
-                        marksForDstTrees[j] = true;
-                    }
-                }
-            }
-
-            for (int i = 0; i < marksForSrcTrees.length; i++)
-                if (marksForSrcTrees[i] == false)
+            // The marks are reused from one height to the next, only growing when needed.
+            if (marksForSrcTrees.length < currentHeightSrcTrees.size())
+                marksForSrcTrees = new boolean[currentHeightSrcTrees.size()];
+            else
+                Arrays.fill(marksForSrcTrees, 0, currentHeightSrcTrees.size(), false);
+            if (marksForDstTrees.length < currentHeightDstTrees.size())
+                marksForDstTrees = new boolean[currentHeightDstTrees.size()];
+            else
+                Arrays.fill(marksForDstTrees, 0, currentHeightDstTrees.size(), false);
+
+            if (currentHeightSrcTrees.size() == 1 || currentHeightDstTrees.size() == 1)
+                linkIsomorphicTrees(currentHeightSrcTrees, currentHeightDstTrees,
+                        marksForSrcTrees, marksForDstTrees, multiMappings);
+            else
+                linkIsomorphicClasses(currentHeightSrcTrees, currentHeightDstTrees,
+                        marksForSrcTrees, marksForDstTrees, multiMappings);
+
+            for (int i = 0; i < currentHeightSrcTrees.size(); i++)
+                if (!marksForSrcTrees[i])
                     srcTrees.open(currentHeightSrcTrees.get(i));
-            for (int j = 0; j < marksForDstTrees.length; j++)
-                if (marksForDstTrees[j] == false)
+            for (int j = 0; j < currentHeightDstTrees.size(); j++)
+                if (!marksForDstTrees[j])
                     dstTrees.open(currentHeightDstTrees.get(j));
             srcTrees.updateHeight();
             dstTrees.updateHeight();
@@ -86,8 +96,81 @@ public abstract class AbstractSubtreeMatcher extends Matcher {
         filterMappings(multiMappings);
     }
 
+    private static void linkIsomorphicTrees(List<ITree> srcs, List<ITree> dsts,
+            boolean[] srcMarks, boolean[] dstMarks, MultiMappingStore multiMappings) {
+        for (int i = 0; i < srcs.size(); i++) {
+            Cancellation.checkpoint();
+            ITree src = srcs.get(i);
+            for (int j = 0; j < dsts.size(); j++) {
+                ITree dst = dsts.get(j);
+
+                if (src.isIsomorphicTo(dst)) {
+                    multiMappings.link(src, dst);
+                    srcMarks[i] = true;
+                    dstMarks[j] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Same links as {@link #linkIsomorphicTrees(List, List, boolean[], boolean[], MultiMappingStore)},
+     * in the same order, but the destination trees are first split into isomorphism classes so that
+     * each source tree is only compared to one representative per class of its hash. Duplicated code
+     * yields k source and k destination isomorphic trees, which now cost k comparisons instead of k².
+     */
+    private static void linkIsomorphicClasses(List<ITree> srcs, List<ITree> dsts,
+            boolean[] srcMarks, boolean[] dstMarks, MultiMappingStore multiMappings) {
+        TIntObjectMap<List<TIntArrayList>> classesByHash = new TIntObjectHashMap<>();
+        for (int j = 0; j < dsts.size(); j++) {
+            ITree dst = dsts.get(j);
+            List<TIntArrayList> classes = classesByHash.get(dst.getHash());
+            if (classes == null) {
+                classes = new ArrayList<>(1);
+                classesByHash.put(dst.getHash(), classes);
+            }
+            TIntArrayList dstClass = null;
+            for (TIntArrayList candidate : classes)
+                if (dsts.get(candidate.get(0)).isIsomorphicTo(dst)) {
+                    dstClass = candidate;
+                    break;
+                }
+            if (dstClass == null) {
+                dstClass = new TIntArrayList(1);
+                classes.add(dstClass);
+            }
+            dstClass.add(j);
+        }
+
+        for (int i = 0; i < srcs.size(); i++) {
+            Cancellation.checkpoint();
+            ITree src = srcs.get(i);
+            List<TIntArrayList> classes = classesByHash.get(src.getHash());
+            if (classes == null)
+                continue;
+            for (TIntArrayList dstClass : classes)
+                if (src.isIsomorphicTo(dsts.get(dstClass.get(0)))) {
+                    for (int k = 0; k < dstClass.size(); k++) {
+                        int j = dstClass.get(k);
+                        multiMappings.link(src, dsts.get(j));
+                        dstMarks[j] = true;
+                    }
+                    srcMarks[i] = true;
+                    break;
+                }
+        }
+    }
+
     public abstract void filterMappings(MultiMappingStore multiMappings);
 
+    /**
+     * @return true if the search of isomorphic subtrees has to stop, the smaller subtrees being
+     *     left unmapped. Checked once per height.
+     */
+    protected boolean isExpired() {
+        return false;
+    }
+
     protected double sim(ITree src, ITree dst) {
         double jaccard = jaccardSimilarity(src.getParent(), dst.getParent());
         int posSrc = (src.isRoot()) ? 0 : src.getParent().getChildPosition(src);
@@ -115,14 +198,24 @@ public abstract class AbstractSubtreeMatcher extends Matcher {
         }
     }
 
+    /**
+     * The trees to be compared, bucketed by height, the highest ones first. The children of a tree
+     * being lower than it, the buckets are popped in order and the next non empty one is found by
+     * scanning forward from the popped one, which is amortized constant time. The popped bucket is
+     * recycled by {@link #updateHeight()}, the caller being done with it.
+     */
     private static class PriorityTreeList {
 
-        private List<ITree>[] trees;
+        private final List<ITree>[] trees;
 
-        private int maxHeight;
+        private final int maxHeight;
 
         private int currentIdx;
 
+        private int poppedIdx = -1;
+
+        private final ArrayDeque<List<ITree>> recycled = new ArrayDeque<>();
+
         @SuppressWarnings("unchecked")
         public PriorityTreeList(ITree tree) {
             int listSize = tree.getHeight() - MIN_HEIGHT + 1;
@@ -150,27 +243,29 @@ public abstract class AbstractSubtreeMatcher extends Matcher {
         private void addTree(ITree tree) {
             if (tree.getHeight() >= MIN_HEIGHT) {
                 int idx = idx(tree);
-                if (trees[idx] == null) trees[idx] = new ArrayList<>();
+                if (trees[idx] == null)
+                    trees[idx] = recycled.isEmpty() ? new ArrayList<>() : recycled.pop();
                 trees[idx].add(tree);
             }
         }
 
-        public List<ITree> open() {
+        public void open() {
             List<ITree> pop = pop();
             if (pop != null) {
                 for (ITree tree: pop) open(tree);
                 updateHeight();
-                return pop;
-            } else return null;
+            }
         }
 
+        /**
+         * @return the trees of the current height, valid until the next call to {@link #updateHeight()}.
+         */
         public List<ITree> pop() {
             if (currentIdx == -1)
                 return null;
             else {
-                List<ITree> pop = trees[currentIdx];
-                trees[currentIdx] = null;
-                return pop;
+                poppedIdx = currentIdx;
+                return trees[currentIdx];
             }
         }
 
@@ -183,8 +278,17 @@ public abstract class AbstractSubtreeMatcher extends Matcher {
         }
 
         public void updateHeight() {
+            int from = currentIdx;
+            if (poppedIdx != -1) {
+                List<ITree> popped = trees[poppedIdx];
+                trees[poppedIdx] = null;
+                popped.clear();
+                recycled.push(popped);
+                from = poppedIdx + 1;
+                poppedIdx = -1;
+            }
             currentIdx = -1;
-            for (int i = 0; i < trees.length; i++) {
+            for (int i = Math.max(from, 0); i < trees.length; i++) {
                 if (trees[i] != null) {
                     currentIdx = i;
                     break;
@@ -0,0 +1,61 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers.heuristic.gt;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.MatchingBudget;
+import com.github.gumtreediff.tree.ITree;
+
+/**
+ * Greedy bottom-up matcher whose last chance (ZS) recovery is only applied while the given
+ * budget allows it, each recovery consuming the nodes actually given to ZS. Once the budget is
+ * exceeded, the remaining containers are still mapped but their descendants are not recovered,
+ * and once the deadline is reached no other container is searched.
+ */
+public class BudgetedBottomUpMatcher extends GreedyBottomUpMatcher {
+
+    private final MatchingBudget budget;
+
+    public BudgetedBottomUpMatcher(ITree src, ITree dst, MappingStore store, MatchingBudget budget) {
+        super(src, dst, store);
+        this.budget = budget;
+    }
+
+    @Override
+    protected void lastChanceMatch(ITree src, ITree dst) {
+        if (!budget.isExceeded())
+            super.lastChanceMatch(src, dst);
+        else {
+            mappedSrc.putTrees(src);
+            mappedDst.putTrees(dst);
+        }
+    }
+
+    @Override
+    protected boolean acceptLastChanceMatch(ITree cSrc, ITree cDst) {
+        return budget.tryConsume(cSrc.getSize() + cDst.getSize());
+    }
+
+    @Override
+    protected boolean isExpired() {
+        return budget.isExpired();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers.heuristic.gt;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.MatchingBudget;
+import com.github.gumtreediff.tree.ITree;
+
+/**
+ * Greedy top-down matcher which stops looking for isomorphic subtrees once the deadline of the
+ * given budget is reached, keeping the ones found on the previous heights.
+ */
+public class BudgetedSubtreeMatcher extends GreedySubtreeMatcher {
+
+    private final MatchingBudget budget;
+
+    public BudgetedSubtreeMatcher(ITree src, ITree dst, MappingStore store, MatchingBudget budget) {
+        super(src, dst, store);
+        this.budget = budget;
+    }
+
+    @Override
+    protected boolean isExpired() {
+        return budget.isExpired();
+    }
+}
@@ -23,35 +23,38 @@ package com.github.gumtreediff.matchers.heuristic.gt;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.MultiMappingStore;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeCursor;
+import com.github.gumtreediff.tree.TreeUtils;
 import com.github.gumtreediff.utils.Pair;
-import com.github.gumtreediff.matchers.Mapping;
+import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.map.hash.TIntObjectHashMap;
 
 import java.util.*;
 
 public class CliqueSubtreeMatcher extends AbstractSubtreeMatcher {
 
+    private final boolean postOrderIds;
+
     public CliqueSubtreeMatcher(ITree src, ITree dst, MappingStore store) {
         super(src, dst, store);
+        postOrderIds = TreeUtils.hasPostOrderIds(src) && TreeUtils.hasPostOrderIds(dst);
     }
 
     @Override
     public void filterMappings(MultiMappingStore multiMappings) {
         TIntObjectHashMap<Pair<List<ITree>, List<ITree>>> cliques = new TIntObjectHashMap<>();
-        for (Mapping m : multiMappings) {
-            int hash = m.getFirst().getHash();
-            if (!cliques.containsKey(hash))
-                cliques.put(hash, new Pair<>(new ArrayList<>(), new ArrayList<>()));
-            cliques.get(hash).getFirst().add(m.getFirst());
-            cliques.get(hash).getSecond().add(m.getSecond());
-        }
+        for (ITree t : multiMappings.getSrcs())
+            clique(cliques, t).getFirst().add(t);
+        for (ITree t : multiMappings.getDsts())
+            clique(cliques, t).getSecond().add(t);
 
         List<Pair<List<ITree>, List<ITree>>> ccliques = new ArrayList<>();
 
         for (int hash : cliques.keys()) {
             Pair<List<ITree>, List<ITree>> clique = cliques.get(hash);
             if (clique.getFirst().size() == 1 && clique.getSecond().size() == 1) {
-                addMappingRecursively(clique.getFirst().get(0), clique.getSecond().get(0));
+                if (multiMappings.has(clique.getFirst().get(0), clique.getSecond().get(0)))
+                    addMappingRecursively(clique.getFirst().get(0), clique.getSecond().get(0));
                 cliques.remove(hash);
             } else
                 ccliques.add(clique);
@@ -59,21 +62,188 @@ public class CliqueSubtreeMatcher extends AbstractSubtreeMatcher {
 
         Collections.sort(ccliques, new CliqueComparator());
 
-        for (Pair<List<ITree>, List<ITree>> clique : ccliques) {
-            List<Mapping> cliqueAsMappings = fromClique(clique);
-            Collections.sort(cliqueAsMappings, new MappingComparator(cliqueAsMappings));
-            Set<ITree> srcIgnored = new HashSet<>();
-            Set<ITree> dstIgnored = new HashSet<>();
-            retainBestMapping(cliqueAsMappings, srcIgnored, dstIgnored);
+        for (Pair<List<ITree>, List<ITree>> clique : ccliques)
+            retainBestMappings(clique.getFirst(), clique.getSecond(), multiMappings);
+    }
+
+    private static Pair<List<ITree>, List<ITree>> clique(TIntObjectHashMap<Pair<List<ITree>, List<ITree>>> cliques,
+                                                         ITree t) {
+        Pair<List<ITree>, List<ITree>> clique = cliques.get(t.getHash());
+        if (clique == null) {
+            clique = new Pair<>(new ArrayList<>(), new ArrayList<>());
+            cliques.put(t.getHash(), clique);
+        }
+        return clique;
+    }
+
+    /**
+     * Map greedily the isomorphic trees of a clique, ranking the pairs by the similarity of their
+     * parents, then by the distance of their positions in their parents, then by the distance of
+     * their ids, then by their ids. The scores are computed once per pair, in arrays indexed by
+     * <code>srcIndex * dsts.size() + dstIndex</code>, and the pairs are ranked with primitive sorts.
+     */
+    private void retainBestMappings(List<ITree> srcs, List<ITree> dsts, MultiMappingStore multiMappings) {
+        // Sorted by id, the index of a pair orders it by its source then destination id.
+        srcs.sort(Comparator.comparingInt(ITree::getId));
+        dsts.sort(Comparator.comparingInt(ITree::getId));
+        int n = srcs.size();
+        int m = dsts.size();
+        int[] srcPositions = positions(srcs);
+        int[] dstPositions = positions(dsts);
+        int[] posDistances = new int[n * m];
+        int[] idDistances = new int[n * m];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < m; j++) {
+                posDistances[i * m + j] = Math.abs(srcPositions[i] - dstPositions[j]);
+                idDistances[i * m + j] = Math.abs(srcs.get(i).getId() - dsts.get(j).getId());
+            }
+
+        int[] order = new int[n * m];
+        for (int k = 0; k < order.length; k++)
+            order[k] = k;
+        long[] keys = new long[n * m];
+        int[] simRanks = descendingRanks(parentSimilarities(srcs, dsts));
+        sortRuns(order, keys, null, simRanks);
+        sortRuns(order, keys, simRanks, posDistances);
+        sortRuns(order, keys, refineRanks(order, simRanks, posDistances), idDistances);
+
+        boolean[] srcMapped = new boolean[n];
+        boolean[] dstMapped = new boolean[m];
+        int remaining = Math.min(n, m);
+        for (int k = 0; k < order.length && remaining > 0; k++) {
+            int i = order[k] / m;
+            int j = order[k] % m;
+            if (srcMapped[i] || dstMapped[j] || !multiMappings.has(srcs.get(i), dsts.get(j)))
+                continue;
+            addMappingRecursively(srcs.get(i), dsts.get(j));
+            srcMapped[i] = true;
+            dstMapped[j] = true;
+            remaining--;
+        }
+    }
+
+    /**
+     * @return the rank of each score, the highest scores having the rank 0 and equal scores the same
+     *     rank.
+     */
+    private static int[] descendingRanks(double[] scores) {
+        double[] distinct = scores.clone();
+        Arrays.sort(distinct);
+        int size = 0;
+        for (int k = 0; k < distinct.length; k++)
+            if (size == 0 || distinct[size - 1] != distinct[k])
+                distinct[size++] = distinct[k];
+        int[] ranks = new int[scores.length];
+        for (int k = 0; k < scores.length; k++)
+            ranks[k] = size - 1 - Arrays.binarySearch(distinct, 0, size, scores[k]);
+        return ranks;
+    }
+
+    /**
+     * Sort by the given key, then by index, each run of the ordered pairs having the same rank, or all
+     * the pairs when there are no ranks. Both being non negative ints, they are packed in a long so
+     * that plain primitive sorts are used.
+     */
+    private static void sortRuns(int[] order, long[] keys, int[] ranks, int[] key) {
+        int from = 0;
+        while (from < order.length) {
+            int to = from + 1;
+            while (to < order.length && (ranks == null || ranks[order[to]] == ranks[order[from]]))
+                to++;
+            if (to - from > 1) {
+                for (int k = from; k < to; k++)
+                    keys[k] = ((long) key[order[k]] << 32) | order[k];
+                Arrays.sort(keys, from, to);
+                for (int k = from; k < to; k++)
+                    order[k] = (int) keys[k];
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * @return ranks such that two pairs have the same rank when they had the same rank and have the
+     *     same key, the pairs being ordered by rank then key.
+     */
+    private static int[] refineRanks(int[] order, int[] ranks, int[] key) {
+        int[] refined = new int[ranks.length];
+        for (int k = 1; k < order.length; k++) {
+            int previous = order[k - 1];
+            int current = order[k];
+            refined[current] = ranks[current] == ranks[previous] && key[current] == key[previous]
+                    ? refined[previous] : k;
+        }
+        return refined;
+    }
+
+    /**
+     * @return the jaccard similarities of the parents of each pair of trees. With post-order ids,
+     *     the ids of the destination trees mapped to the descendants of each source parent are
+     *     sorted once, and the descendants of a destination parent being an interval of ids, the
+     *     number of common descendants is found with two binary searches.
+     */
+    private double[] parentSimilarities(List<ITree> srcs, List<ITree> dsts) {
+        int m = dsts.size();
+        double[] sims = new double[srcs.size() * m];
+        Map<ITree, int[]> mappedIds = new IdentityHashMap<>();
+        for (int i = 0; i < srcs.size(); i++) {
+            ITree srcParent = srcs.get(i).getParent();
+            if (srcParent == null)
+                continue;
+            int[] ids = postOrderIds ? mappedIds.computeIfAbsent(srcParent, this::mappedDstIds) : null;
+            for (int j = 0; j < m; j++) {
+                ITree dstParent = dsts.get(j).getParent();
+                if (dstParent == null)
+                    continue;
+                if (ids == null)
+                    sims[i * m + j] = jaccardSimilarity(srcParent, dstParent);
+                else {
+                    double common = lowerBound(ids, dstParent.getId())
+                            - lowerBound(ids, TreeUtils.firstDescendantId(dstParent));
+                    sims[i * m + j] = common / ((srcParent.getSize() - 1) + (dstParent.getSize() - 1) - common);
+                }
+            }
+        }
+        return sims;
+    }
+
+    /**
+     * @return the sorted ids of the destination trees mapped to the descendants of the given tree.
+     */
+    private int[] mappedDstIds(ITree srcTree) {
+        TIntArrayList ids = new TIntArrayList();
+        TreeCursor descendants = TreeCursor.descendants(srcTree);
+        for (ITree t = descendants.next(); t != null; t = descendants.next()) {
+            ITree m = mappings.getDst(t);
+            if (m != null)
+                ids.add(m.getId());
+        }
+        int[] sorted = ids.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return the number of values of the sorted array lower than the given one.
+     */
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value)
+                low = mid + 1;
+            else
+                high = mid;
         }
+        return low;
     }
 
-    private List<Mapping> fromClique(Pair<List<ITree>, List<ITree>> clique) {
-        List<Mapping> cliqueAsMappings = new ArrayList<Mapping>();
-        for (ITree src: clique.getFirst())
-            for (ITree dst: clique.getFirst())
-                cliqueAsMappings.add(new Mapping(src, dst));
-        return cliqueAsMappings;
+    private static int[] positions(List<ITree> trees) {
+        int[] positions = new int[trees.size()];
+        for (int i = 0; i < positions.length; i++)
+            positions[i] = trees.get(i).positionInParent();
+        return positions;
     }
 
     private static class CliqueComparator implements Comparator<Pair<List<ITree>, List<ITree>>> {
@@ -108,60 +278,4 @@ public class CliqueSubtreeMatcher extends AbstractSubtreeMatcher {
         }
 
     }
-
-    private class MappingComparator implements Comparator<Mapping> {
-
-        private Map<Mapping, double[]> simMap = new HashMap<>();
-
-        public MappingComparator(List<Mapping> mappings) {
-            for (Mapping mapping: mappings)
-                simMap.put(mapping, sims(mapping.getFirst(), mapping.getSecond()));
-        }
-
-        public int compare(Mapping m1, Mapping m2) {
-            double[] sims1 = simMap.get(m1);
-            double[] sims2 = simMap.get(m2);
-            for (int i = 0; i < sims1.length; i++) {
-                if (sims1[i] != sims2[i])
-                    return -1 * Double.compare(sims2[i], sims2[i]);
-            }
-            return 0;
-        }
-
-        private Map<ITree, List<ITree>> srcDescendants = new HashMap<>();
-
-        private Map<ITree, Set<ITree>> dstDescendants = new HashMap<>();
-
-        protected int numberOfCommonDescendants(ITree src, ITree dst) {
-            if (!srcDescendants.containsKey(src))
-                srcDescendants.put(src, src.getDescendants());
-            if (!dstDescendants.containsKey(dst))
-                dstDescendants.put(dst, new HashSet<>(dst.getDescendants()));
-
-            int common = 0;
-
-            for (ITree t: srcDescendants.get(src)) {
-                ITree m = mappings.getDst(t);
-                if (m != null && dstDescendants.get(dst).contains(m)) common++;
-            }
-
-            return common;
-        }
-
-        protected double[] sims(ITree src, ITree dst) {
-            double[] sims = new double[4];
-            sims[0] = jaccardSimilarity(src.getParent(), dst.getParent());
-            sims[1] = src.positionInParent() - dst.positionInParent();
-            sims[2] = src.getId() - dst.getId();
-            sims[3] = src.getId();
-            return sims;
-        }
-
-        protected double jaccardSimilarity(ITree src, ITree dst) {
-            double num = (double) numberOfCommonDescendants(src, dst);
-            double den = (double) srcDescendants.get(src).size() + (double) dstDescendants.get(dst).size() - num;
-            return num / den;
-        }
-
-    }
 }
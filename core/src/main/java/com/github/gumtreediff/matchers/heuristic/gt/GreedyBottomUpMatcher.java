@@ -45,7 +45,7 @@ public class GreedyBottomUpMatcher extends AbstractBottomUpMatcher {
                 addMapping(t, this.dst);
                 lastChanceMatch(t, this.dst);
                 break;
-            } else if (!(isSrcMatched(t) || t.isLeaf())) {
+            } else if (!(isSrcMatched(t) || t.isLeaf() || isExpired())) {
                 List<ITree> candidates = getDstCandidates(t);
                 ITree best = null;
                 double max = -1D;
@@ -20,51 +20,66 @@
 
 package com.github.gumtreediff.matchers.heuristic.gt;
 
-import com.github.gumtreediff.utils.HungarianAlgorithm;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.MultiMappingStore;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.SparseAssignment;
 
 import java.util.*;
 
 public class HungarianSubtreeMatcher extends AbstractSubtreeMatcher {
 
+    /**
+     * The ambiguous groups having more trees on one side are assigned greedily, by increasing cost.
+     */
+    public static int MAX_GROUP_SIZE = Integer.parseInt(System.getProperty("gt.hsm.gs", "1000"));
+
+    private final SparseAssignment assignment = new SparseAssignment();
+
     public HungarianSubtreeMatcher(ITree src, ITree dst, MappingStore store) {
         super(src, dst, store);
     }
 
     public void filterMappings(MultiMappingStore multiMappings) {
-        List<MultiMappingStore> ambiguousList = new ArrayList<>();
+        List<Pair<List<ITree>, List<ITree>>> ambiguousList = new ArrayList<>();
         Set<ITree> ignored = new HashSet<>();
         for (ITree src: multiMappings.getSrcs())
             if (multiMappings.isSrcUnique(src))
                 addMappingRecursively(src, multiMappings.getDst(src).iterator().next());
             else if (!ignored.contains(src)) {
-                MultiMappingStore ambiguous = new MultiMappingStore();
                 Set<ITree> adsts = multiMappings.getDst(src);
                 Set<ITree> asrcs = multiMappings.getSrc(multiMappings.getDst(src).iterator().next());
-                for (ITree asrc : asrcs)
-                    for (ITree adst: adsts)
-                        ambiguous.link(asrc ,adst);
-                ambiguousList.add(ambiguous);
+                ambiguousList.add(new Pair<>(new ArrayList<>(asrcs), new ArrayList<>(adsts)));
                 ignored.addAll(asrcs);
             }
 
-        Collections.sort(ambiguousList, new MultiMappingComparator());
+        Collections.sort(ambiguousList, new AmbiguousComparator());
+
+        for (Pair<List<ITree>, List<ITree>> ambiguous: ambiguousList) {
+            List<ITree> lstSrcs = ambiguous.getFirst();
+            List<ITree> lstDsts = ambiguous.getSecond();
+            lstSrcs.sort(Comparator.comparingInt(ITree::getId));
+            lstDsts.sort(Comparator.comparingInt(ITree::getId));
+            Map<ITree, Integer> dstIndexes = new IdentityHashMap<>();
+            for (int j = 0; j < lstDsts.size(); j++)
+                dstIndexes.put(lstDsts.get(j), j);
 
-        for (MultiMappingStore ambiguous: ambiguousList) {
-            System.out.println("hungarian try.");
-            List<ITree> lstSrcs = new ArrayList<>(ambiguous.getSrcs());
-            List<ITree> lstDsts = new ArrayList<>(ambiguous.getDsts());
-            double[][] matrix = new double[lstSrcs.size()][lstDsts.size()];
+            // Only the linked pairs are candidates, the costs of the others would be infinite.
+            assignment.reset(lstSrcs.size(), lstDsts.size());
             for (int i = 0; i < lstSrcs.size(); i++)
-                for (int j = 0; j < lstDsts.size(); j++)
-                    matrix[i][j] = cost(lstSrcs.get(i), lstDsts.get(j));
+                for (ITree dst : multiMappings.getDst(lstSrcs.get(i))) {
+                    Integer j = dstIndexes.get(dst);
+                    if (j != null)
+                        assignment.add(i, j, cost(lstSrcs.get(i), dst));
+                }
 
-            HungarianAlgorithm hgAlg = new HungarianAlgorithm(matrix);
-            int[] solutions = hgAlg.execute();
-            for (int i = 0; i < solutions.length; i++) {
-                int dstIdx = solutions[i];
+            if (Math.max(lstSrcs.size(), lstDsts.size()) > MAX_GROUP_SIZE)
+                assignment.solveGreedily();
+            else
+                assignment.solve();
+            for (int i = 0; i < lstSrcs.size(); i++) {
+                int dstIdx = assignment.getColumn(i);
                 if (dstIdx != -1) addMappingRecursively(lstSrcs.get(i), lstDsts.get(dstIdx));
             }
         }
@@ -74,20 +89,20 @@ public class HungarianSubtreeMatcher extends AbstractSubtreeMatcher {
         return 111D - sim(src, dst);
     }
 
-    private class MultiMappingComparator implements Comparator<MultiMappingStore> {
+    private class AmbiguousComparator implements Comparator<Pair<List<ITree>, List<ITree>>> {
 
         @Override
-        public int compare(MultiMappingStore m1, MultiMappingStore m2) {
+        public int compare(Pair<List<ITree>, List<ITree>> m1, Pair<List<ITree>, List<ITree>> m2) {
             return Integer.compare(impact(m1), impact(m2));
         }
 
-        public int impact(MultiMappingStore m) {
+        public int impact(Pair<List<ITree>, List<ITree>> m) {
             int impact = 0;
-            for (ITree src: m.getSrcs()) {
+            for (ITree src: m.getFirst()) {
                 int pSize = src.getParents().size();
                 if (pSize > impact) impact = pSize;
             }
-            for (ITree src: m.getDsts()) {
+            for (ITree src: m.getSecond()) {
                 int pSize = src.getParents().size();
                 if (pSize > impact) impact = pSize;
             }
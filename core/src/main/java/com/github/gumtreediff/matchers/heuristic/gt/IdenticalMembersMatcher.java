@@ -0,0 +1,104 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.matchers.heuristic.gt;
+
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.ITree;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cheap pre-pass pairing the top-level members (e.g. type declarations, then methods
+ * and fields) that are identical in both trees, using the subtree hashes.
+ * Members that have a unique identical counterpart among the children of the matched
+ * parent are mapped recursively. Unmatched members that can be paired unambiguously by
+ * type and label (e.g. a modified class) are mapped and explored in turn, up to
+ * {@link #MAX_DEPTH} levels below the roots.
+ */
+public class IdenticalMembersMatcher extends Matcher {
+
+    public static int MAX_DEPTH = Integer.parseInt(System.getProperty("gt.imm.depth", "2"));
+
+    public IdenticalMembersMatcher(ITree src, ITree dst, MappingStore store) {
+        super(src, dst, store);
+    }
+
+    @Override
+    public void match() {
+        if (src.hasSameType(dst)) {
+            addMapping(src, dst);
+            narrow(src, dst, 0);
+        }
+    }
+
+    private void narrow(ITree src, ITree dst, int depth) {
+        Map<Integer, List<ITree>> srcByHash = groupByHash(src);
+        Map<Integer, List<ITree>> dstByHash = groupByHash(dst);
+
+        List<ITree> srcRemaining = new ArrayList<>();
+        for (ITree s : src.getChildren()) {
+            List<ITree> dsts = dstByHash.get(s.getHash());
+            if (s.getHeight() >= AbstractSubtreeMatcher.MIN_HEIGHT && dsts != null && dsts.size() == 1
+                    && srcByHash.get(s.getHash()).size() == 1 && s.isIsomorphicTo(dsts.get(0)))
+                addMappingRecursively(s, dsts.get(0));
+            else
+                srcRemaining.add(s);
+        }
+
+        if (depth + 1 >= MAX_DEPTH)
+            return;
+
+        Map<String, List<ITree>> srcByKey = groupByKey(srcRemaining);
+        Map<String, List<ITree>> dstByKey = new HashMap<>();
+        for (ITree d : dst.getChildren())
+            if (!mappings.hasDst(d))
+                dstByKey.computeIfAbsent(d.toShortString(), k -> new ArrayList<>()).add(d);
+
+        for (ITree s : srcRemaining) {
+            if (s.isLeaf())
+                continue;
+            List<ITree> dsts = dstByKey.get(s.toShortString());
+            if (dsts != null && dsts.size() == 1 && srcByKey.get(s.toShortString()).size() == 1
+                    && !dsts.get(0).isLeaf()) {
+                addMapping(s, dsts.get(0));
+                narrow(s, dsts.get(0), depth + 1);
+            }
+        }
+    }
+
+    private static Map<Integer, List<ITree>> groupByHash(ITree parent) {
+        Map<Integer, List<ITree>> groups = new HashMap<>();
+        for (ITree c : parent.getChildren())
+            groups.computeIfAbsent(c.getHash(), k -> new ArrayList<>()).add(c);
+        return groups;
+    }
+
+    private static Map<String, List<ITree>> groupByKey(List<ITree> trees) {
+        Map<String, List<ITree>> groups = new HashMap<>();
+        for (ITree t : trees)
+            groups.computeIfAbsent(t.toShortString(), k -> new ArrayList<>()).add(t);
+        return groups;
+    }
+}
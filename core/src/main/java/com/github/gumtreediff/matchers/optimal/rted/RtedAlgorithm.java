@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.utils.Cancellation;
 
 
 /**
@@ -220,6 +221,7 @@ public class RtedAlgorithm {
 		// v represents nodes of left input tree in postorder
 		// w represents nodes of right input tree in postorder
 		for (int v = 0; v < size1; v++) {
+			Cancellation.checkpoint();
 			Arrays.fill(costW[0], 0);
 			Arrays.fill(costW[1], 0);
 			Arrays.fill(costW[2], 0);
@@ -301,6 +303,7 @@ public class RtedAlgorithm {
 	 * @return
 	 */
 	private double computeDistUsingStrArray(InfoTree it1, InfoTree it2) {
+		Cancellation.checkpoint();
 
 		int postorder1 = it1.getCurrentNode();
 		int postorder2 = it2.getCurrentNode();
@@ -1097,6 +1100,7 @@ public class RtedAlgorithm {
 		treePairs.push(new int[] { size1, size2 });
 
 		while (!treePairs.isEmpty()) {
+			Cancellation.checkpoint();
 
 			// get next tree pair to be processed
 			int[] treePair = treePairs.pop();
@@ -23,6 +23,7 @@ package com.github.gumtreediff.matchers.optimal.zs;
 import com.github.gumtreediff.matchers.MappingStore;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.utils.Cancellation;
 import org.simmetrics.StringMetrics;
 
 import java.util.Arrays;
@@ -58,6 +59,7 @@ public class ZsMatcher extends Matcher {
         forestDist = new double[src.nodeCount + 1][dst.nodeCount + 1];
 
         for (int i = 1; i < src.kr.length; i++) {
+            Cancellation.checkpoint();
             for (int j = 1; j < dst.kr.length; j++) {
                 forestDist(src.kr[i], dst.kr[j]);
 
@@ -104,6 +106,7 @@ public class ZsMatcher extends Matcher {
         treePairs.push(new int[] { src.nodeCount, dst.nodeCount });
 
         while (!treePairs.isEmpty()) {
+            Cancellation.checkpoint();
             int[] treePair = treePairs.pop();
 
             int lastRow = treePair[0];
@@ -0,0 +1,104 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.metrics;
+
+/**
+ * Listener of the measures taken along the diff pipeline, installed with
+ * {@link Instrumentation#setListener(DiffMetrics)}. The events of a diff are sent from the thread
+ * running it, between {@link #diffStarted(String)} and {@link #diffEnded()}; the ones of trees
+ * parsed concurrently (see {@link com.github.gumtreediff.utils.ParallelParsing}) come from other
+ * threads, which join the diff with {@link #setCurrentDiff(Object)}. Implementations must
+ * therefore be thread safe.
+ * @see MetricsRegistry
+ */
+public interface DiffMetrics {
+
+    enum Phase {
+        /** Parsing of both revisions, including the validation of the trees. */
+        PARSE,
+        /** Computation of the sizes, depths, heights, hashes and ids of a tree. */
+        VALIDATE,
+        /** The first matcher of a composite matcher, e.g. the greedy subtree matcher. */
+        TOP_DOWN_MATCH,
+        /** The following matchers of a composite matcher, including their last chance matches. */
+        BOTTOM_UP_MATCH,
+        /** The optimal matching of the unmatched descendants of two nodes mapped bottom-up. */
+        LAST_CHANCE_MATCH,
+        /** Generation of the edit script. */
+        ACTIONS,
+        /** Output of the edit script. */
+        SERIALIZATION
+    }
+
+    enum Counter {
+        SRC_NODES,
+        DST_NODES,
+        MAPPINGS,
+        ACTIONS,
+        /** Number of calls to the optimal matcher during last chance matches. */
+        LAST_CHANCE_CALLS,
+        /** Total size of the trees given to the optimal matcher during last chance matches. */
+        LAST_CHANCE_NODES,
+        /** Estimated retained size of the source tree context, in bytes (memory accounting only). */
+        SRC_RETAINED_BYTES,
+        /** Estimated retained size of the destination tree context, in bytes (memory accounting only). */
+        DST_RETAINED_BYTES,
+        /** Estimated retained size of the mapping store, without the trees, in bytes (memory accounting only). */
+        MAPPINGS_RETAINED_BYTES,
+        /** Estimated retained size of the actions, without the trees, in bytes (memory accounting only). */
+        ACTIONS_RETAINED_BYTES
+    }
+
+    default void diffStarted(String name) {
+    }
+
+    void phaseEnded(Phase phase, long nanos);
+
+    void counted(Counter counter, long value);
+
+    /**
+     * Called after {@link #phaseEnded(Phase, long)} when the memory accounting is enabled, with the
+     * number of bytes allocated by the thread during the phase.
+     * @see Instrumentation#setMemoryAccounting(boolean)
+     */
+    default void allocated(Phase phase, long bytes) {
+    }
+
+    default void diffEnded() {
+    }
+
+    /**
+     * @return the diff whose events are sent from the current thread, null if there is none.
+     */
+    default Object getCurrentDiff() {
+        return null;
+    }
+
+    /**
+     * Attributes the following events of the current thread to the given diff, returned by
+     * {@link #getCurrentDiff()} on the thread running it, or to no diff if null.
+     * @return the previous diff of the current thread, to be restored afterwards.
+     */
+    default Object setCurrentDiff(Object diff) {
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.Callable;
+
+/**
+ * Entry point of the instrumentation of the diff pipeline: the measures are sent to the
+ * installed {@link DiffMetrics} listener. When no listener is installed, which is the default,
+ * each measure costs a volatile read.
+ * The memory accounting is enabled separately, with {@link #setMemoryAccounting(boolean)} or the
+ * <code>gt.metrics.memory</code> property: the bytes allocated by each phase are then measured
+ * using the {@link com.sun.management.ThreadMXBean} of the JVM, when it supports it.
+ */
+public final class Instrumentation {
+
+    private static final long DISABLED = Long.MIN_VALUE;
+
+    private static volatile DiffMetrics listener;
+
+    private static volatile boolean memoryAccounting = Boolean.getBoolean("gt.metrics.memory");
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    /**
+     * The allocated bytes of the current thread at the start of each phase.
+     */
+    private static final ThreadLocal<long[]> ALLOCATED = ThreadLocal.withInitial(
+            () -> new long[DiffMetrics.Phase.values().length]);
+
+    private Instrumentation() {}
+
+    /**
+     * Installs the listener of the measures, or disables the instrumentation if null.
+     */
+    public static void setListener(DiffMetrics metrics) {
+        listener = metrics;
+    }
+
+    public static DiffMetrics getListener() {
+        return listener;
+    }
+
+    public static boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * Enables the memory accounting, which only happens when a listener is installed.
+     */
+    public static void setMemoryAccounting(boolean enabled) {
+        memoryAccounting = enabled;
+    }
+
+    public static boolean isMemoryAccounting() {
+        return memoryAccounting && listener != null;
+    }
+
+    public static void startDiff(String name) {
+        DiffMetrics l = listener;
+        if (l != null)
+            l.diffStarted(name);
+    }
+
+    public static void endDiff() {
+        DiffMetrics l = listener;
+        if (l != null)
+            l.diffEnded();
+    }
+
+    /**
+     * @return the given task, which attributes its measures to the diff of the calling thread when
+     *     it is run by another thread.
+     */
+    public static <T> Callable<T> inCurrentDiff(Callable<T> task) {
+        DiffMetrics l = listener;
+        Object diff = l == null ? null : l.getCurrentDiff();
+        if (diff == null)
+            return task;
+        return () -> {
+            Object previous = l.setCurrentDiff(diff);
+            try {
+                return task.call();
+            } finally {
+                l.setCurrentDiff(previous);
+            }
+        };
+    }
+
+    /**
+     * @return the start time of the given phase, to be given to {@link #end(DiffMetrics.Phase, long)}.
+     */
+    public static long start(DiffMetrics.Phase phase) {
+        if (listener == null)
+            return DISABLED;
+        if (memoryAccounting && THREADS != null)
+            ALLOCATED.get()[phase.ordinal()] = allocatedBytes();
+        return System.nanoTime();
+    }
+
+    public static void end(DiffMetrics.Phase phase, long start) {
+        DiffMetrics l = listener;
+        if (l == null || start == DISABLED)
+            return;
+        l.phaseEnded(phase, System.nanoTime() - start);
+        if (memoryAccounting && THREADS != null) {
+            long allocated = ALLOCATED.get()[phase.ordinal()];
+            if (allocated >= 0)
+                l.allocated(phase, allocatedBytes() - allocated);
+        }
+    }
+
+    public static void count(DiffMetrics.Counter counter, long value) {
+        DiffMetrics l = listener;
+        if (l != null)
+            l.counted(counter, value);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+                if (t.isThreadAllocatedMemorySupported()) {
+                    t.setThreadAllocatedMemoryEnabled(true);
+                    return t;
+                }
+            }
+        } catch (UnsupportedOperationException | LinkageError e) {
+            // No allocation counter on this JVM.
+        }
+        return null;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.metrics;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A {@link DiffMetrics} keeping the measures of each diff, up to a maximum number of diffs,
+ * and their totals. The measures taken outside of a diff, or on a thread neither running one nor
+ * joining it, are only added to the totals.
+ */
+public class MetricsRegistry implements DiffMetrics {
+
+    private static final int DEFAULT_MAX_DIFFS = 10000;
+
+    private final int maxDiffs;
+
+    private final ThreadLocal<Record> current = new ThreadLocal<>();
+
+    private final List<Record> diffs = new ArrayList<>();
+
+    private final Record totals = new Record("total");
+
+    private int count;
+
+    public MetricsRegistry() {
+        this(DEFAULT_MAX_DIFFS);
+    }
+
+    /**
+     * @param maxDiffs the number of diffs whose measures are kept, the following ones being only
+     *     added to the totals.
+     */
+    public MetricsRegistry(int maxDiffs) {
+        this.maxDiffs = maxDiffs;
+    }
+
+    @Override
+    public void diffStarted(String name) {
+        current.set(new Record(name));
+    }
+
+    @Override
+    public void phaseEnded(Phase phase, long nanos) {
+        Record r = current.get();
+        if (r != null)
+            synchronized (r) {
+                r.addPhase(phase, nanos);
+            }
+        synchronized (totals) {
+            totals.addPhase(phase, nanos);
+        }
+    }
+
+    @Override
+    public void allocated(Phase phase, long bytes) {
+        Record r = current.get();
+        if (r != null)
+            synchronized (r) {
+                r.addAllocated(phase, bytes);
+            }
+        synchronized (totals) {
+            totals.addAllocated(phase, bytes);
+        }
+    }
+
+    @Override
+    public void counted(Counter counter, long value) {
+        Record r = current.get();
+        if (r != null)
+            synchronized (r) {
+                r.addCount(counter, value);
+            }
+        synchronized (totals) {
+            totals.addCount(counter, value);
+        }
+    }
+
+    @Override
+    public void diffEnded() {
+        Record r = current.get();
+        current.remove();
+        synchronized (diffs) {
+            count++;
+            if (r != null && diffs.size() < maxDiffs)
+                diffs.add(r);
+        }
+    }
+
+    @Override
+    public Object getCurrentDiff() {
+        return current.get();
+    }
+
+    @Override
+    public Object setCurrentDiff(Object diff) {
+        Record previous = current.get();
+        if (diff == null)
+            current.remove();
+        else
+            current.set((Record) diff);
+        return previous;
+    }
+
+    /**
+     * @return the number of ended diffs, including the ones whose measures have not been kept.
+     */
+    public int getDiffCount() {
+        synchronized (diffs) {
+            return count;
+        }
+    }
+
+    public List<Record> getDiffs() {
+        synchronized (diffs) {
+            return Collections.unmodifiableList(new ArrayList<>(diffs));
+        }
+    }
+
+    public Record getTotals() {
+        synchronized (totals) {
+            return totals.copy();
+        }
+    }
+
+    public void writeJson(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("diffs").value(getDiffCount());
+        json.name("totals");
+        getTotals().writeJson(json);
+        json.name("records").beginArray();
+        for (Record r : getDiffs())
+            r.writeJson(json);
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    public String toJson() {
+        StringWriter w = new StringWriter();
+        try {
+            writeJson(w);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return w.toString();
+    }
+
+    /**
+     * The measures of a diff: the time spent in each phase, the number of times it ran and the
+     * bytes it allocated, and the counters.
+     */
+    public static final class Record {
+
+        private final String name;
+
+        private final long[] nanos = new long[Phase.values().length];
+
+        private final long[] calls = new long[Phase.values().length];
+
+        private final long[] allocated = new long[Phase.values().length];
+
+        private final long[] counters = new long[Counter.values().length];
+
+        Record(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos(Phase phase) {
+            return nanos[phase.ordinal()];
+        }
+
+        public long getCalls(Phase phase) {
+            return calls[phase.ordinal()];
+        }
+
+        /**
+         * @return the bytes allocated during the given phase, 0 without memory accounting.
+         */
+        public long getAllocated(Phase phase) {
+            return allocated[phase.ordinal()];
+        }
+
+        public long getCount(Counter counter) {
+            return counters[counter.ordinal()];
+        }
+
+        void addPhase(Phase phase, long time) {
+            nanos[phase.ordinal()] += time;
+            calls[phase.ordinal()]++;
+        }
+
+        void addAllocated(Phase phase, long bytes) {
+            allocated[phase.ordinal()] += bytes;
+        }
+
+        void addCount(Counter counter, long value) {
+            counters[counter.ordinal()] += value;
+        }
+
+        Record copy() {
+            Record r = new Record(name);
+            System.arraycopy(nanos, 0, r.nanos, 0, nanos.length);
+            System.arraycopy(calls, 0, r.calls, 0, calls.length);
+            System.arraycopy(allocated, 0, r.allocated, 0, allocated.length);
+            System.arraycopy(counters, 0, r.counters, 0, counters.length);
+            return r;
+        }
+
+        void writeJson(JsonWriter json) throws IOException {
+            json.beginObject();
+            json.name("name").value(name);
+            json.name("phases").beginObject();
+            for (Phase p : Phase.values()) {
+                if (calls[p.ordinal()] == 0)
+                    continue;
+                json.name(p.name().toLowerCase(Locale.ROOT)).beginObject();
+                json.name("calls").value(calls[p.ordinal()]);
+                json.name("nanos").value(nanos[p.ordinal()]);
+                if (allocated[p.ordinal()] != 0)
+                    json.name("allocated").value(allocated[p.ordinal()]);
+                json.endObject();
+            }
+            json.endObject();
+            json.name("counters").beginObject();
+            for (Counter c : Counter.values())
+                json.name(c.name().toLowerCase(Locale.ROOT)).value(counters[c.ordinal()]);
+            json.endObject();
+            json.endObject();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.metrics;
+
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.actions.model.Addition;
+import com.github.gumtreediff.actions.model.Move;
+import com.github.gumtreediff.actions.model.Update;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.Label;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeCursor;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Estimates of the memory retained by the structures of a diff, computed from their shapes
+ * rather than measured by an agent. The layout is the one of a 64 bits JVM with compressed
+ * references (12 bytes headers, 4 bytes references, objects aligned on 8 bytes), and the
+ * strings are counted with 2 bytes per character. Shared objects, such as interned labels, the
+ * source text of lazy labels or the trees referenced by the mappings and the actions, are only
+ * counted once, by the structure owning them.
+ */
+public final class RetainedSize {
+
+    private static final int HEADER = 12;
+
+    private static final int REFERENCE = 4;
+
+    private static final int ARRAY_HEADER = 16;
+
+    // id, height, size, depth, hash, type, pos, length and parent, children, label, metadata.
+    private static final long TREE = align(HEADER + 8 * 4 + 4 * REFERENCE);
+
+    private static final long ARRAY_LIST = align(HEADER + 2 * 4 + REFERENCE);
+
+    private static final long ASSOCIATION_MAP = align(HEADER + 2 * REFERENCE);
+
+    private static final long LABEL = align(HEADER + 3 * 4 + 2 * REFERENCE);
+
+    private static final long STRING = align(HEADER + 2 * 4 + REFERENCE);
+
+    private static final long HASH_MAP = align(HEADER + 4 * 4 + 4 * REFERENCE);
+
+    private static final long HASH_MAP_NODE = align(HEADER + 4 + 3 * REFERENCE);
+
+    private static final long CONTEXT = align(HEADER + 4 * REFERENCE);
+
+    private static final long ACTION = align(HEADER + 4 + 2 * REFERENCE);
+
+    private static final long ADDITION = align(HEADER + 2 * 4 + 3 * REFERENCE);
+
+    private RetainedSize() {}
+
+    /**
+     * @return the estimated size of the trees of the given context, with their labels and metadata.
+     *     The type labels and the global metadata of the context, bounded by the grammar, are
+     *     not counted.
+     */
+    public static long of(TreeContext context) {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        long size = CONTEXT;
+        if (context.getRoot() == null)
+            return size;
+        TreeCursor cursor = TreeCursor.preOrder(context.getRoot());
+        for (ITree t = cursor.next(); t != null; t = cursor.next()) {
+            size += TREE + arrayList(t.getChildren().size());
+            size += labelSize(t.getLabelSequence(), seen);
+            Iterator<Entry<String, Object>> metadata = t.getMetadata();
+            if (metadata != null && metadata.hasNext()) {
+                int count = 0;
+                while (metadata.hasNext()) {
+                    Entry<String, Object> e = metadata.next();
+                    size += stringSize(e.getKey(), seen);
+                    if (e.getValue() instanceof String)
+                        size += stringSize((String) e.getValue(), seen);
+                    count++;
+                }
+                size += ASSOCIATION_MAP + 2 * arrayList(count);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the estimated size of the two maps of the given store, without the mapped trees.
+     */
+    public static long of(MappingStore mappings) {
+        int count = mappings.asSet().size();
+        return align(HEADER + 2 * REFERENCE) + 2 * hashMap(count);
+    }
+
+    /**
+     * @return the estimated size of the given list and its actions, without the trees they refer to.
+     */
+    public static long of(List<Action> actions) {
+        long size = arrayList(actions.size());
+        for (Action a : actions) {
+            if (a instanceof Move)
+                size += align(ADDITION + REFERENCE);
+            else if (a instanceof Addition)
+                size += ADDITION;
+            else if (a instanceof Update)
+                size += align(ACTION + 2 * REFERENCE);
+            else
+                size += ACTION;
+        }
+        return size;
+    }
+
+    /**
+     * A {@link Label} being a view on a text shared with other labels, the text is counted once
+     * for all of them, and the String of the label only if it has been created.
+     */
+    private static long labelSize(CharSequence label, Set<Object> seen) {
+        if (!(label instanceof Label))
+            return stringSize(label.toString(), seen);
+        if (!seen.add(label))
+            return 0;
+        Label l = (Label) label;
+        long size = LABEL + stringSize(l.getText(), seen);
+        if (l.getCreatedString() != null)
+            size += stringSize(l.getCreatedString(), seen);
+        return size;
+    }
+
+    private static long stringSize(String s, Set<Object> seen) {
+        if (s.isEmpty() || !seen.add(s))
+            return 0;
+        return STRING + align(ARRAY_HEADER + 2L * s.length());
+    }
+
+    /**
+     * @return the size of an ArrayList of the given size, whose capacity grew from the default one.
+     */
+    private static long arrayList(int size) {
+        if (size == 0)
+            return ARRAY_LIST;
+        int capacity = 10;
+        while (capacity < size)
+            capacity += capacity >> 1;
+        return ARRAY_LIST + align(ARRAY_HEADER + (long) REFERENCE * capacity);
+    }
+
+    private static long hashMap(int size) {
+        if (size == 0)
+            return HASH_MAP;
+        int capacity = 16;
+        while (capacity * 3 / 4 < size)
+            capacity <<= 1;
+        return HASH_MAP + align(ARRAY_HEADER + (long) REFERENCE * capacity) + size * HASH_MAP_NODE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -89,7 +89,7 @@ public abstract class AbstractTree implements ITree,Serializable {
 
     @Override
     public boolean hasLabel() {
-        return !NO_LABEL.equals(getLabel());
+        return !Label.contentEquals(NO_LABEL, getLabelSequence());
     }
 
     @Override
@@ -105,12 +105,8 @@ public abstract class AbstractTree implements ITree,Serializable {
     @Override
     public List<ITree> getParents() {
         List<ITree> parents = new ArrayList<>();
-        if (getParent() == null)
-            return parents;
-        else {
-            parents.add(getParent());
-            parents.addAll(getParent().getParents());
-        }
+        for (ITree p = getParent(); p != null; p = p.getParent())
+            parents.add(p);
         return parents;
     }
 
@@ -158,7 +154,7 @@ public abstract class AbstractTree implements ITree,Serializable {
     public boolean hasSameTypeAndLabel(ITree t) {
         if (!hasSameType(t))
             return false;
-        else if (!getLabel().equals(t.getLabel()))
+        else if (!Label.contentEquals(getLabelSequence(), t.getLabelSequence()))
             return false;
         return true;
     }
@@ -238,11 +234,17 @@ public abstract class AbstractTree implements ITree,Serializable {
     @Override
     public String toStaticHashString() {
         StringBuilder b = new StringBuilder();
-        b.append(OPEN_SYMBOL);
-        b.append(this.toShortString());
-        for (ITree c: this.getChildren())
-            b.append(c.toStaticHashString());
-        b.append(CLOSE_SYMBOL);
+        TreeUtils.visitTree(this, new TreeUtils.TreeVisitor() {
+            @Override
+            public void startTree(ITree tree) {
+                b.append(OPEN_SYMBOL).append(tree.toShortString());
+            }
+
+            @Override
+            public void endTree(ITree tree) {
+                b.append(CLOSE_SYMBOL);
+            }
+        });
         return b.toString();
     }
 
@@ -162,6 +162,22 @@ public interface ITree {
 
     void setLabel(String label);
 
+    /**
+     * Set the label from any sequence of characters. A {@link Label} is kept as is by trees
+     * supporting it, its String being only created when {@link #getLabel()} is called.
+     */
+    default void setLabel(CharSequence label) {
+        setLabel(label == null ? null : label.toString());
+    }
+
+    /**
+     * @return the label, either as a String or as a {@link Label} whose String has not been
+     *     created yet. Used to hash and compare labels without creating Strings.
+     */
+    default CharSequence getLabelSequence() {
+        return getLabel();
+    }
+
     int getPos();
 
     void setPos(int pos);
@@ -0,0 +1,144 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.tree;
+
+/**
+ * A label stored as a range of a text shared with other labels (e.g. the source or the text
+ * of an enclosing node). The String of the label is only created when requested, while the hash
+ * code (the same as the one of the String) and the comparisons are computed on the shared text.
+ *
+ * @see ITree#setLabel(CharSequence)
+ */
+public final class Label implements CharSequence {
+
+    private final String text;
+
+    private final int offset;
+
+    private final int length;
+
+    private int hash;
+
+    private String string;
+
+    public Label(String text, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > text.length())
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + (offset + length)
+                    + ") out of a text of length " + text.length());
+        this.text = text;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of a label of length " + length);
+        return text.charAt(offset + index);
+    }
+
+    @Override
+    public Label subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of a label of length " + length);
+        return new Label(text, offset + start, end - start);
+    }
+
+    /**
+     * @return the text shared by the label with other labels, for memory accounting.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the String of the label if it has already been created, null otherwise, for memory
+     *     accounting.
+     */
+    public String getCreatedString() {
+        return string;
+    }
+
+    /**
+     * Append the characters of the label, without creating its String.
+     */
+    public void appendTo(StringBuilder b) {
+        b.append(text, offset, offset + length);
+    }
+
+    /**
+     * Append the characters of the label, without creating its String.
+     */
+    public void appendTo(StringBuffer b) {
+        b.append(text, offset, offset + length);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (int i = offset; i < offset + length; i++)
+                h = 31 * h + text.charAt(i);
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Label && contentEquals(this, (Label) o);
+    }
+
+    @Override
+    public String toString() {
+        if (string == null)
+            string = text.substring(offset, offset + length);
+        return string;
+    }
+
+    /**
+     * @return whether the two labels, Strings or {@link Label}s, have the same characters.
+     *     Labels are compared without creating their String.
+     */
+    public static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a == b)
+            return true;
+        if (a == null || b == null)
+            return false;
+        if (a instanceof String && b instanceof String)
+            return a.equals(b);
+        if (a.length() != b.length())
+            return false;
+        if ((a instanceof String || a instanceof Label) && (b instanceof String || b instanceof Label)
+                && a.hashCode() != b.hashCode())
+            return false;
+        for (int i = 0; i < a.length(); i++)
+            if (a.charAt(i) != b.charAt(i))
+                return false;
+        return true;
+    }
+
+}
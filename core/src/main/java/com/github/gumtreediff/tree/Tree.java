@@ -21,7 +21,9 @@
 package com.github.gumtreediff.tree;
 
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -30,7 +32,8 @@ public class Tree extends AbstractTree implements ITree {
 
     private int type;
 
-    private String label;
+    // Either a String or a Label, replaced by its String once requested
+    private CharSequence label;
 
     // Begin position of the tree in terms of absolute character index and length
     private int pos;
@@ -61,7 +64,7 @@ public class Tree extends AbstractTree implements ITree {
     // Only used for cloning ...
     private Tree(Tree other) {
         this.type = other.type;
-        this.label = other.getLabel();
+        this.label = other.label;
         this.id = other.getId();
         this.pos = other.getPos();
         this.length = other.getLength();
@@ -89,8 +92,23 @@ public class Tree extends AbstractTree implements ITree {
     @Override
     public Tree deepCopy() {
         Tree copy = new Tree(this);
-        for (ITree child : getChildren())
-            copy.addChild(child.deepCopy());
+        Deque<Tree> originals = new ArrayDeque<>();
+        Deque<Tree> copies = new ArrayDeque<>();
+        originals.push(this);
+        copies.push(copy);
+        while (!originals.isEmpty()) {
+            Tree original = originals.pop();
+            Tree parent = copies.pop();
+            for (ITree child : original.getChildren()) {
+                if (child instanceof Tree) {
+                    Tree childCopy = new Tree((Tree) child);
+                    parent.addChild(childCopy);
+                    originals.push((Tree) child);
+                    copies.push(childCopy);
+                } else
+                    parent.addChild(child.deepCopy());
+            }
+        }
         return copy;
     }
 
@@ -101,6 +119,13 @@ public class Tree extends AbstractTree implements ITree {
 
     @Override
     public String getLabel() {
+        if (!(label instanceof String))
+            label = label.toString();
+        return (String) label;
+    }
+
+    @Override
+    public CharSequence getLabelSequence() {
         return label;
     }
 
@@ -133,7 +158,15 @@ public class Tree extends AbstractTree implements ITree {
 
     @Override
     public void setLabel(String label) {
-        this.label = label;
+        this.label = (label == null) ? NO_LABEL : label;
+    }
+
+    @Override
+    public void setLabel(CharSequence label) {
+        if (label instanceof Label)
+            this.label = label;
+        else
+            setLabel(label == null ? null : label.toString());
     }
 
     @Override
@@ -24,6 +24,8 @@ import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.io.TreeIoUtils.MetadataSerializer;
 import com.github.gumtreediff.io.TreeIoUtils.MetadataUnserializer;
 import com.github.gumtreediff.io.TreeIoUtils.TreeFormatter;
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
 
 import java.util.*;
 import java.util.Map.Entry;
@@ -84,8 +86,10 @@ public class TreeContext {
     }
 
     public void validate() {
+        long start = Instrumentation.start(Phase.VALIDATE);
         root.refresh();
         TreeUtils.postOrderNumbering(root);
+        Instrumentation.end(Phase.VALIDATE, start);
     }
 
     public boolean hasLabelFor(int type) {
@@ -0,0 +1,166 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.tree;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pre-order or post-order walk of a tree which does not allocate anything per node, contrary to
+ * {@link TreeUtils#preOrder(ITree)} or the iterators of {@link ITree#preOrder()}. The path from the
+ * root is kept in arrays which grow with the depth of the tree, and a cursor can be reset to walk
+ * another tree, reusing them. The tree must not be modified during the walk.
+ * <pre>
+ * TreeCursor c = TreeCursor.postOrder(root);
+ * for (ITree t = c.next(); t != null; t = c.next())
+ *     ...
+ * </pre>
+ */
+public final class TreeCursor {
+
+    private static final int INITIAL_DEPTH = 32;
+
+    private ITree[] parents = new ITree[INITIAL_DEPTH];
+
+    private int[] positions = new int[INITIAL_DEPTH];
+
+    private int depth;
+
+    private boolean postOrder;
+
+    private ITree next;
+
+    public static TreeCursor preOrder(ITree root) {
+        return new TreeCursor().resetPreOrder(root);
+    }
+
+    public static TreeCursor postOrder(ITree root) {
+        return new TreeCursor().resetPostOrder(root);
+    }
+
+    /**
+     * @return a pre-order cursor on the descendants of the given tree, i.e. without the tree itself.
+     */
+    public static TreeCursor descendants(ITree root) {
+        TreeCursor cursor = preOrder(root);
+        cursor.next();
+        return cursor;
+    }
+
+    public TreeCursor resetPreOrder(ITree root) {
+        clear();
+        postOrder = false;
+        next = root;
+        return this;
+    }
+
+    public TreeCursor resetPostOrder(ITree root) {
+        clear();
+        postOrder = true;
+        next = firstLeaf(root);
+        return this;
+    }
+
+    private void clear() {
+        Arrays.fill(parents, 0, depth, null);
+        depth = 0;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * @return the next tree, or null at the end of the walk.
+     */
+    public ITree next() {
+        ITree t = next;
+        if (t == null)
+            return null;
+        if (postOrder)
+            next = depth == 0 ? null : nextInPostOrder();
+        else if (!t.isLeaf()) {
+            push(t);
+            next = t.getChildren().get(0);
+        } else
+            next = nextSibling();
+        return t;
+    }
+
+    /**
+     * @return the id of the next tree, or {@link ITree#NO_ID} at the end of the walk.
+     */
+    public int nextId() {
+        ITree t = next();
+        return t == null ? ITree.NO_ID : t.getId();
+    }
+
+    /**
+     * @return the number of trees between the root and the tree to be returned by {@link #next()}.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    private ITree nextInPostOrder() {
+        ITree parent = parents[depth - 1];
+        List<ITree> siblings = parent.getChildren();
+        int position = positions[depth - 1] + 1;
+        if (position < siblings.size()) {
+            positions[depth - 1] = position;
+            return firstLeaf(siblings.get(position));
+        }
+        parents[--depth] = null;
+        return parent;
+    }
+
+    private ITree nextSibling() {
+        while (depth > 0) {
+            List<ITree> siblings = parents[depth - 1].getChildren();
+            int position = positions[depth - 1] + 1;
+            if (position < siblings.size()) {
+                positions[depth - 1] = position;
+                return siblings.get(position);
+            }
+            parents[--depth] = null;
+        }
+        return null;
+    }
+
+    private ITree firstLeaf(ITree t) {
+        while (!t.isLeaf()) {
+            push(t);
+            t = t.getChildren().get(0);
+        }
+        return t;
+    }
+
+    private void push(ITree parent) {
+        if (depth == parents.length) {
+            parents = Arrays.copyOf(parents, depth * 2);
+            positions = Arrays.copyOf(positions, depth * 2);
+        }
+        parents[depth] = parent;
+        positions[depth] = 0;
+        depth++;
+    }
+}
@@ -49,7 +49,8 @@ public final class TreeMap {
     }
 
     public void putTrees(ITree tree) {
-        for (ITree t: tree.getTrees())
+        TreeCursor cursor = TreeCursor.preOrder(tree);
+        for (ITree t = cursor.next(); t != null; t = cursor.next())
             trees.put(t.getId(), t);
     }
 
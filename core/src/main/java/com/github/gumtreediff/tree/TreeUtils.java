@@ -26,6 +26,7 @@ import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Function;
 
 import com.github.gumtreediff.utils.Pair;
 
@@ -40,7 +41,8 @@ public final class TreeUtils {
      * @param tree a Tree
      */
     public static void computeSize(ITree tree) {
-        for (ITree t: tree.postOrder()) {
+        TreeCursor cursor = TreeCursor.postOrder(tree);
+        for (ITree t = cursor.next(); t != null; t = cursor.next()) {
             int size = 1;
             if (!t.isLeaf())
                 for (ITree c: t.getChildren())
@@ -55,8 +57,8 @@ public final class TreeUtils {
      * @param tree a Tree
      */
     public static void computeDepth(ITree tree) {
-        List<ITree> trees = preOrder(tree);
-        for (ITree t: trees) {
+        TreeCursor cursor = TreeCursor.preOrder(tree);
+        for (ITree t = cursor.next(); t != null; t = cursor.next()) {
             int depth = 0;
             if (!t.isRoot()) depth = t.getParent().getDepth() + 1;
             t.setDepth(depth);
@@ -69,7 +71,8 @@ public final class TreeUtils {
      * @param tree a Tree.
      */
     public static void computeHeight(ITree tree) {
-        for (ITree t: tree.postOrder()) {
+        TreeCursor cursor = TreeCursor.postOrder(tree);
+        for (ITree t = cursor.next(); t != null; t = cursor.next()) {
             int height = 0;
             if (!t.isLeaf()) {
                 for (ITree c: t.getChildren()) {
@@ -87,20 +90,51 @@ public final class TreeUtils {
      * @param tree a Tree.
      */
     public static List<ITree> preOrder(ITree tree) {
+        return toList(TreeCursor.preOrder(tree));
+    }
+
+    private static List<ITree> toList(TreeCursor cursor) {
         List<ITree> trees = new ArrayList<>();
-        preOrder(tree, trees);
+        for (ITree t = cursor.next(); t != null; t = cursor.next())
+            trees.add(t);
         return trees;
     }
 
-    private static void preOrder(ITree tree, List<ITree> trees) {
-        trees.add(tree);
-        if (!tree.isLeaf())
-            for (ITree c: tree.getChildren())
-                preOrder(c, trees);
+    /**
+     * Build a tree from a foreign tree (e.g. the AST of a parser) in pre-order, using an explicit
+     * stack so that the depth of the tree is not limited by the size of the call stack.
+     * @param create creates the tree of a node, without its children.
+     * @param children returns the children of a node, in order.
+     * @return the tree of the root node, which is also set as the root of the context.
+     */
+    public static <N> ITree buildTree(TreeContext context, N root, Function<? super N, ITree> create,
+                                      Function<? super N, ? extends List<? extends N>> children) {
+        ITree rootTree = create.apply(root);
+        context.setRoot(rootTree);
+        Deque<N> nodes = new ArrayDeque<>();
+        Deque<ITree> parents = new ArrayDeque<>();
+        pushChildrenReversed(root, rootTree, children, nodes, parents);
+        while (!nodes.isEmpty()) {
+            N node = nodes.pop();
+            ITree t = create.apply(node);
+            t.setParentAndUpdateChildren(parents.pop());
+            pushChildrenReversed(node, t, children, nodes, parents);
+        }
+        return rootTree;
+    }
+
+    private static <N> void pushChildrenReversed(N node, ITree tree,
+                                                 Function<? super N, ? extends List<? extends N>> children,
+                                                 Deque<N> nodes, Deque<ITree> parents) {
+        List<? extends N> nodeChildren = children.apply(node);
+        for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+            nodes.push(nodeChildren.get(i));
+            parents.push(tree);
+        }
     }
 
     public static void preOrderNumbering(ITree tree) {
-        numbering(tree.preOrder());
+        numbering(TreeCursor.preOrder(tree));
     }
 
     /**
@@ -109,13 +143,9 @@ public final class TreeUtils {
      */
     public static List<ITree> breadthFirst(ITree tree) {
         List<ITree> trees = new ArrayList<>();
-        List<ITree> currents = new ArrayList<>();
-        currents.add(tree);
-        while (currents.size() > 0) {
-            ITree c = currents.remove(0);
-            trees.add(c);
-            currents.addAll(c.getChildren());
-        }
+        trees.add(tree);
+        for (int i = 0; i < trees.size(); i++)
+            trees.addAll(trees.get(i).getChildren());
         return trees;
     }
 
@@ -170,21 +200,56 @@ public final class TreeUtils {
             t.setId(i++);
     }
 
+    private static void numbering(TreeCursor cursor) {
+        int i = 0;
+        for (ITree t = cursor.next(); t != null; t = cursor.next())
+            t.setId(i++);
+    }
+
     /**
      * Returns a list of every subtrees and the tree ordered using a post-order.
      * @param tree a Tree.
      */
     public static List<ITree> postOrder(ITree tree) {
-        List<ITree> trees = new ArrayList<>();
-        postOrder(tree, trees);
-        return trees;
+        return toList(TreeCursor.postOrder(tree));
     }
 
-    private static void postOrder(ITree tree, List<ITree> trees) {
-        if (!tree.isLeaf())
-            for (ITree c: tree.getChildren())
-                postOrder(c, trees);
-        trees.add(tree);
+    /**
+     * Check whether the ids of the tree are its post-order numbering and its sizes are up to date,
+     * as after {@link TreeContext#validate()}. The descendants of every subtree t then have the ids
+     * from {@link #firstDescendantId(ITree)} to t.getId() - 1.
+     */
+    public static boolean hasPostOrderIds(ITree tree) {
+        int expected = firstDescendantId(tree);
+        TreeCursor cursor = TreeCursor.postOrder(tree);
+        for (ITree t = cursor.next(); t != null; t = cursor.next()) {
+            if (t.getId() != expected++)
+                return false;
+            int size = 1;
+            List<ITree> children = t.getChildren();
+            for (int i = 0; i < children.size(); i++)
+                size += children.get(i).getSize();
+            if (t.getSize() != size)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the smallest id of the subtree of the given tree, for trees having post-order ids.
+     * @see #hasPostOrderIds(ITree)
+     */
+    public static int firstDescendantId(ITree tree) {
+        return tree.getId() - tree.getSize() + 1;
+    }
+
+    /**
+     * @return true if the given id is the one of a descendant of the given tree, for trees
+     *     having post-order ids.
+     * @see #hasPostOrderIds(ITree)
+     */
+    public static boolean isDescendantId(ITree tree, int id) {
+        return id >= firstDescendantId(tree) && id < tree.getId();
     }
 
     public static Iterator<ITree> postOrderIterator(final ITree tree) {
@@ -207,12 +272,13 @@ public final class TreeUtils {
             }
 
             ITree selectNextChild(Iterator<ITree> it) {
-                if (!it.hasNext())
-                    return stack.pop().getFirst();
-                ITree item = it.next();
-                if (item.isLeaf())
-                    return item;
-                return selectNextChild(push(item));
+                while (it.hasNext()) {
+                    ITree item = it.next();
+                    if (item.isLeaf())
+                        return item;
+                    it = push(item);
+                }
+                return stack.pop().getFirst();
             }
 
             private Iterator<ITree> push(ITree item) {
@@ -292,7 +358,17 @@ public final class TreeUtils {
 
     public static Iterator<ITree> leafIterator(final Iterator<ITree> it) {
         return new Iterator<ITree>() {
-            ITree current = it.hasNext() ? it.next() : null;
+            ITree current = nextLeaf();
+
+            private ITree nextLeaf() {
+                while (it.hasNext()) {
+                    ITree t = it.next();
+                    if (t.isLeaf())
+                        return t;
+                }
+                return null;
+            }
+
             @Override
             public boolean hasNext() {
                 return current != null;
@@ -300,12 +376,10 @@ public final class TreeUtils {
 
             @Override
             public ITree next() {
+                if (current == null)
+                    throw new NoSuchElementException();
                 ITree val = current;
-                while (it.hasNext()) {
-                    current = it.next();
-                    if (current.isLeaf())
-                        break;
-                }
+                current = nextLeaf();
                 return val;
             }
 
@@ -317,6 +391,6 @@ public final class TreeUtils {
     }
 
     public static void postOrderNumbering(ITree tree) {
-        numbering(tree.postOrder());
+        numbering(TreeCursor.postOrder(tree));
     }
 }
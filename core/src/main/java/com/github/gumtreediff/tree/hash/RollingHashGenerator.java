@@ -24,12 +24,14 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeCursor;
 import static com.github.gumtreediff.tree.hash.HashUtils.*;
 
 public abstract class RollingHashGenerator implements HashGenerator {
 
     public void hash(ITree t) {
-        for (ITree n: t.postOrder())
+        TreeCursor cursor = TreeCursor.postOrder(t);
+        for (ITree n = cursor.next(); n != null; n = cursor.next())
             if (n.isLeaf())
                 n.setHash(leafHash(n));
             else
@@ -39,19 +41,27 @@ public abstract class RollingHashGenerator implements HashGenerator {
     public abstract int hashFunction(String s);
 
     public int leafHash(ITree t) {
-        return BASE * hashFunction(HashUtils.inSeed(t)) + hashFunction(HashUtils.outSeed(t));
+        return BASE * inSeedHash(t) + outSeedHash(t);
+    }
+
+    protected int inSeedHash(ITree t) {
+        return hashFunction(HashUtils.inSeed(t));
+    }
+
+    protected int outSeedHash(ITree t) {
+        return hashFunction(HashUtils.outSeed(t));
     }
 
     public int innerNodeHash(ITree t) {
         int size = t.getSize() * 2 - 1;
-        int hash = hashFunction(HashUtils.inSeed(t)) * fpow(BASE, size);
+        int hash = inSeedHash(t) * fpow(BASE, size);
 
         for (ITree c: t.getChildren()) {
             size = size - c.getSize() * 2;
             hash += c.getHash() * fpow(BASE, size);
         }
 
-        hash += hashFunction(HashUtils.outSeed(t));
+        hash += outSeedHash(t);
         return hash;
     }
 
@@ -71,6 +81,16 @@ public abstract class RollingHashGenerator implements HashGenerator {
             return md5(s);
         }
 
+        @Override
+        protected int inSeedHash(ITree t) {
+            return SeedDigest.inSeed(t);
+        }
+
+        @Override
+        protected int outSeedHash(ITree t) {
+            return SeedDigest.outSeed(t);
+        }
+
     }
 
     public static class RandomRollingHashGenerator extends RollingHashGenerator {
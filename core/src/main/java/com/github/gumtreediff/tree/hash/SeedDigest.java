@@ -0,0 +1,139 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.tree.hash;
+
+import java.nio.charset.Charset;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import com.github.gumtreediff.tree.ITree;
+
+/**
+ * Computes the MD5 hash of the seeds of a node, {@link HashUtils#md5}({@link HashUtils#inSeed}(t)) and
+ * {@link HashUtils#md5}({@link HashUtils#outSeed}(t)), by feeding the digest with the characters of
+ * the label. Neither the seed nor the label String is created, unless the label has non ASCII characters.
+ * Each thread reuses its own digest.
+ */
+final class SeedDigest {
+
+    private static final byte[] OPEN = ITree.OPEN_SYMBOL.getBytes();
+
+    private static final byte[] CLOSE = ITree.CLOSE_SYMBOL.getBytes();
+
+    private static final byte[] SEPARATE = ITree.SEPARATE_SYMBOL.getBytes();
+
+    private static final boolean ASCII_COMPATIBLE = isAsciiCompatible(Charset.defaultCharset());
+
+    private static final ThreadLocal<SeedDigest> DIGESTS = ThreadLocal.withInitial(SeedDigest::new);
+
+    private final MessageDigest md;
+
+    private final byte[] buffer = new byte[256];
+
+    private SeedDigest() {
+        MessageDigest md = null;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+        }
+        this.md = md;
+    }
+
+    public static int inSeed(ITree t) {
+        CharSequence label = t.getLabelSequence();
+        SeedDigest d = DIGESTS.get();
+        if (d.md == null || !isAscii(label))
+            return HashUtils.md5(HashUtils.inSeed(t));
+        d.md.update(OPEN);
+        d.update(label);
+        d.md.update(SEPARATE);
+        d.update(t.getType());
+        return d.digest();
+    }
+
+    public static int outSeed(ITree t) {
+        CharSequence label = t.getLabelSequence();
+        SeedDigest d = DIGESTS.get();
+        if (d.md == null || !isAscii(label))
+            return HashUtils.md5(HashUtils.outSeed(t));
+        d.update(t.getType());
+        d.md.update(SEPARATE);
+        d.update(label);
+        d.md.update(CLOSE);
+        return d.digest();
+    }
+
+    private static boolean isAscii(CharSequence label) {
+        if (!ASCII_COMPATIBLE || label == null)
+            return false;
+        for (int i = 0; i < label.length(); i++)
+            if (label.charAt(i) >= 0x80)
+                return false;
+        return true;
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        byte[] expected = new byte[0x80];
+        char[] chars = new char[0x80];
+        for (int i = 0; i < 0x80; i++) {
+            expected[i] = (byte) i;
+            chars[i] = (char) i;
+        }
+        return Arrays.equals(expected, new String(chars).getBytes(charset));
+    }
+
+    private void update(CharSequence ascii) {
+        int length = ascii.length();
+        for (int start = 0; start < length; start += buffer.length) {
+            int end = Math.min(length, start + buffer.length);
+            for (int i = start; i < end; i++)
+                buffer[i - start] = (byte) ascii.charAt(i);
+            md.update(buffer, 0, end - start);
+        }
+    }
+
+    private void update(int type) {
+        // Same bytes as Integer.toString(type)
+        int i = buffer.length;
+        long v = Math.abs((long) type);
+        do {
+            buffer[--i] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        if (type < 0)
+            buffer[--i] = '-';
+        md.update(buffer, i, buffer.length - i);
+    }
+
+    private int digest() {
+        try {
+            md.digest(buffer, 0, buffer.length);
+            return HashUtils.byteArrayToInt(buffer);
+        } catch (DigestException e) {
+            md.reset();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation of long running computations. Matchers, action generators and
+ * tree generators periodically check whether their thread has been interrupted
+ * (e.g. through {@link java.util.concurrent.Future#cancel(boolean)}) and then abort with a
+ * {@link CancellationException}. The interrupted status of the thread is preserved.
+ */
+public final class Cancellation {
+
+    private Cancellation() {}
+
+    /**
+     * @throws CancellationException if the current thread has been interrupted.
+     */
+    public static void checkpoint() {
+        if (Thread.currentThread().isInterrupted())
+            throw new CancellationException("Interrupted");
+    }
+
+    /**
+     * Wait for the given process to terminate and return its standard output, decoded as UTF-8.
+     * If the current thread is interrupted meanwhile, the process is destroyed.
+     * @throws CancellationException if the current thread has been interrupted.
+     */
+    public static String readOutput(Process p) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IOException[] error = new IOException[1];
+        Thread reader = new Thread(() -> {
+            try (InputStream in = p.getInputStream()) {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) != -1)
+                    out.write(buf, 0, n);
+            } catch (IOException e) {
+                error[0] = e;
+            }
+        }, "gumtree-process-output");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            p.waitFor();
+            reader.join();
+        } catch (InterruptedException e) {
+            p.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for external process");
+        }
+        if (error[0] != null)
+            throw error[0];
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Shortcuts taken by the diff entry points when the two revisions are identical,
+ * and counters reporting how often each of them fires.
+ * @see com.github.gumtreediff.matchers.IdenticalTreesMatcher
+ */
+public final class FastPaths {
+
+    public enum Kind {
+        /** Both inputs have the same bytes, nothing has been parsed nor matched. */
+        IDENTICAL_CONTENT,
+        /** Both trees are isomorphic (e.g. whitespace or comment changes), nothing has been matched. */
+        ISOMORPHIC_TREES,
+        /** No shortcut applied, the full matcher has been run. */
+        FULL_DIFF
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final AtomicLongArray COUNTS = new AtomicLongArray(Kind.values().length);
+
+    private FastPaths() {}
+
+    /**
+     * @return true if both files have exactly the same bytes.
+     */
+    public static boolean haveSameContent(File f1, File f2) throws IOException {
+        if (f1.length() != f2.length())
+            return false;
+        try (InputStream in1 = new FileInputStream(f1); InputStream in2 = new FileInputStream(f2)) {
+            byte[] b1 = new byte[BUFFER_SIZE];
+            byte[] b2 = new byte[BUFFER_SIZE];
+            int n1;
+            while ((n1 = readFully(in1, b1)) > 0) {
+                int n2 = readFully(in2, b2);
+                if (n1 != n2)
+                    return false;
+                for (int i = 0; i < n1; i++)
+                    if (b1[i] != b2[i])
+                        return false;
+            }
+            return readFully(in2, b2) == 0;
+        }
+    }
+
+    /**
+     * Same as {@link #haveSameContent(File, File)}, but returns false when one of the files
+     * can not be read, letting the caller fail later on with its own error handling.
+     */
+    public static boolean haveSameContentQuietly(File f1, File f2) {
+        try {
+            return haveSameContent(f1, f2);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int readFully(InputStream in, byte[] buf) throws IOException {
+        int total = 0;
+        int n;
+        while (total < buf.length && (n = in.read(buf, total, buf.length - total)) != -1)
+            total += n;
+        return total;
+    }
+
+    public static void record(Kind kind) {
+        COUNTS.incrementAndGet(kind.ordinal());
+    }
+
+    public static long count(Kind kind) {
+        return COUNTS.get(kind.ordinal());
+    }
+
+    public static long total() {
+        long total = 0;
+        for (Kind kind : Kind.values())
+            total += count(kind);
+        return total;
+    }
+
+    public static void reset() {
+        for (Kind kind : Kind.values())
+            COUNTS.set(kind.ordinal(), 0);
+    }
+
+    /**
+     * @return a one line summary of the counters, e.g. for logging purposes.
+     */
+    public static String report() {
+        long total = total();
+        StringBuilder b = new StringBuilder("diffs: ").append(total);
+        for (Kind kind : Kind.values()) {
+            long count = count(kind);
+            b.append(String.format(", %s: %d (%.1f%%)", kind.name().toLowerCase(), count,
+                    total == 0 ? 0D : 100D * count / total));
+        }
+        return b.toString();
+    }
+}
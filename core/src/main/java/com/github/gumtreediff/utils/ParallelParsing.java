@@ -0,0 +1,190 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.utils;
+
+import com.github.gumtreediff.metrics.Instrumentation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Concurrent parsing of the two sides of a diff, and pipelining of the parsing of the next diff
+ * with the matching of the current one in batches.
+ *
+ * Parsing is disabled by default: the gt.parse.threads property sets the number of threads of the
+ * shared parsing pool (0, the default, parses everything in the calling thread), and
+ * {@link #setExecutor(Executor)} replaces this pool altogether. Tasks which have not been picked
+ * by the pool when their result is needed are run by the waiting thread, so that a busy or
+ * saturated pool never blocks a diff. Results are the same as with sequential parsing, and when
+ * both sides fail the failure of the source side is reported, as it would have been sequentially.
+ */
+public final class ParallelParsing {
+
+    public static final int THREADS = Integer.parseInt(System.getProperty("gt.parse.threads", "0"));
+
+    private static volatile Executor executor = THREADS > 0 ? newPool(THREADS) : null;
+
+    @FunctionalInterface
+    public interface Parse<T> {
+        T parse() throws IOException;
+    }
+
+    private ParallelParsing() {}
+
+    /**
+     * @return a fixed pool of daemon threads, which do not prevent the JVM from exiting.
+     */
+    public static Executor newPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "gumtree-parser-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Use the given executor for parsing, or parse sequentially if it is null.
+     * The previous executor is not shut down.
+     */
+    public static void setExecutor(Executor executor) {
+        ParallelParsing.executor = executor;
+    }
+
+    public static Executor getExecutor() {
+        return executor;
+    }
+
+    public static boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Parse both sides of a diff, the source side in the parsing pool and the destination side in
+     * the calling thread. The measures of both sides are attributed to the diff of the calling
+     * thread (see {@link Instrumentation}).
+     * @throws CancellationException if the calling thread is interrupted meanwhile.
+     */
+    public static <T> Pair<T, T> parseBoth(Parse<? extends T> src, Parse<? extends T> dst) throws IOException {
+        Executor e = executor;
+        if (e == null)
+            return new Pair<>(src.parse(), dst.parse());
+
+        FutureTask<T> task = submit(e, Instrumentation.inCurrentDiff(src::parse));
+        T d = null;
+        Throwable dstFailure = null;
+        try {
+            d = dst.parse();
+        } catch (CancellationException ex) {
+            task.cancel(true);
+            throw ex;
+        } catch (IOException | RuntimeException | Error ex) {
+            dstFailure = ex;
+        }
+        task.run();
+        T s = await(task);
+        if (dstFailure != null)
+            throw propagate(dstFailure);
+        return new Pair<>(s, d);
+    }
+
+    /**
+     * Parse and process each of the inputs in order, the parsing of the next input being done in the
+     * parsing pool while the current one is processed.
+     * @return the results of the processing, in the order of the inputs.
+     * @throws CancellationException if the calling thread is interrupted meanwhile.
+     */
+    public static <I, T, R> List<R> pipeline(List<? extends I> inputs, Function<? super I, ? extends T> parse,
+                                             Function<? super T, ? extends R> process) {
+        List<R> results = new ArrayList<>(inputs.size());
+        Executor e = executor;
+        if (e == null) {
+            for (I input : inputs)
+                results.add(process.apply(parse.apply(input)));
+            return results;
+        }
+
+        FutureTask<T> next = inputs.isEmpty() ? null : submit(e, () -> parse.apply(inputs.get(0)));
+        for (int i = 0; i < inputs.size(); i++) {
+            FutureTask<T> current = next;
+            if (i + 1 < inputs.size()) {
+                I input = inputs.get(i + 1);
+                next = submit(e, () -> parse.apply(input));
+            } else
+                next = null;
+            try {
+                current.run();
+                results.add(process.apply(await(current)));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            } catch (RuntimeException | Error ex) {
+                if (next != null)
+                    next.cancel(true);
+                throw ex;
+            }
+        }
+        return results;
+    }
+
+    private static <T> FutureTask<T> submit(Executor e, Callable<T> c) {
+        FutureTask<T> task = new FutureTask<>(c);
+        try {
+            e.execute(task);
+        } catch (RejectedExecutionException ex) {
+            // The task is run by the thread waiting for it.
+        }
+        return task;
+    }
+
+    private static <T> T await(FutureTask<T> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while parsing");
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static IOException propagate(Throwable t) {
+        if (t instanceof RuntimeException)
+            throw (RuntimeException) t;
+        if (t instanceof Error)
+            throw (Error) t;
+        if (t instanceof IOException)
+            return (IOException) t;
+        return new IOException(t);
+    }
+}
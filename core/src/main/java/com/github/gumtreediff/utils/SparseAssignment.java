@@ -0,0 +1,323 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.utils;
+
+import java.util.Arrays;
+
+/**
+ * A solver of the assignment problem restricted to candidate pairs: rows are only assigned to the
+ * columns they have been paired with, the cost of the other pairs being infinite. The optimal
+ * assignment is found with the shortest augmenting path method of Jonker and Volgenant, each
+ * augmentation being a Dijkstra search over the candidate pairs, in O(candidates + columns^2) time
+ * at worst. When there are more rows than columns, the transposed problem is solved. When the
+ * candidates do not allow to assign all the rows (or columns), the problem is solved again with a
+ * costly dummy column per row, so that the assignment found is still one of minimal cost among the
+ * ones of maximal size. The buffers are kept from one problem to the next, so that an instance is
+ * meant to be reused.
+ */
+public class SparseAssignment {
+
+    private int rows;
+
+    private int columns;
+
+    private int size;
+
+    private int[] candidateRows = new int[16];
+
+    private int[] candidateColumns = new int[16];
+
+    private double[] candidateCosts = new double[16];
+
+    private int[] assignment = new int[0];
+
+    // The candidates grouped by left vertex, left being the smallest side.
+    private int[] starts = new int[0];
+
+    private int[] adjacentVertices = new int[0];
+
+    private double[] adjacentCosts = new double[0];
+
+    private int[] rightByLeft = new int[0];
+
+    private double[] assignedCosts = new double[0];
+
+    private int[] leftByRight = new int[0];
+
+    private double[] potentials = new double[0];
+
+    private double[] distances = new double[0];
+
+    private int[] predecessors = new int[0];
+
+    private double[] predecessorCosts = new double[0];
+
+    private int[] reachedStamps = new int[0];
+
+    private int[] scannedStamps = new int[0];
+
+    private int[] todo = new int[0];
+
+    private int[] scanned = new int[0];
+
+    private int stamp;
+
+    private long[] keys = new long[0];
+
+    /**
+     * Start a new problem, forgetting the candidates and the assignment of the previous one.
+     */
+    public void reset(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.size = 0;
+        if (assignment.length < rows)
+            assignment = new int[rows];
+        Arrays.fill(assignment, 0, rows, -1);
+    }
+
+    /**
+     * Add a candidate pair, with a finite cost.
+     */
+    public void add(int row, int column, double cost) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns)
+            throw new IndexOutOfBoundsException("Pair (" + row + ", " + column + ") out of bounds");
+        if (size == candidateRows.length) {
+            candidateRows = Arrays.copyOf(candidateRows, size * 2);
+            candidateColumns = Arrays.copyOf(candidateColumns, size * 2);
+            candidateCosts = Arrays.copyOf(candidateCosts, size * 2);
+        }
+        candidateRows[size] = row;
+        candidateColumns[size] = column;
+        candidateCosts[size] = cost;
+        size++;
+    }
+
+    public int getCandidateCount() {
+        return size;
+    }
+
+    /**
+     * @return the column assigned to the given row, or -1 if it is unassigned.
+     */
+    public int getColumn(int row) {
+        return assignment[row];
+    }
+
+    /**
+     * Find an assignment of minimal cost among the ones of maximal size.
+     */
+    public void solve() {
+        Arrays.fill(assignment, 0, rows, -1);
+        boolean transposed = rows > columns;
+        int left = transposed ? columns : rows;
+        int right = transposed ? rows : columns;
+        group(transposed, left, Double.NaN);
+        prepare(left, right);
+        boolean complete = true;
+        for (int vertex = 0; vertex < left; vertex++)
+            complete &= augment(vertex);
+        if (!complete) {
+            // Some vertices cannot be assigned: each one is given its own dummy right vertex, at a
+            // cost such that using less dummies always wins, and the problem is solved again.
+            double min = 0D;
+            double max = 0D;
+            for (int k = 0; k < size; k++) {
+                min = Math.min(min, candidateCosts[k]);
+                max = Math.max(max, candidateCosts[k]);
+            }
+            group(transposed, left, max + (left + 1) * (max - min + 1D));
+            prepare(left, right + left);
+            for (int vertex = 0; vertex < left; vertex++)
+                augment(vertex);
+        }
+        for (int vertex = 0; vertex < left; vertex++) {
+            int other = rightByLeft[vertex];
+            if (other == -1 || other >= right)
+                continue;
+            if (transposed)
+                assignment[other] = vertex;
+            else
+                assignment[vertex] = other;
+        }
+    }
+
+    /**
+     * Find an assignment greedily, the candidates being taken by increasing cost then in the order
+     * they have been added. It is not optimal, but sorting the candidates is its only cost.
+     */
+    public void solveGreedily() {
+        Arrays.fill(assignment, 0, rows, -1);
+        double[] costs = Arrays.copyOf(candidateCosts, size);
+        Arrays.sort(costs);
+        int distinct = 0;
+        for (int k = 0; k < size; k++)
+            if (distinct == 0 || costs[distinct - 1] != costs[k])
+                costs[distinct++] = costs[k];
+        if (keys.length < size)
+            keys = new long[size];
+        for (int k = 0; k < size; k++)
+            keys[k] = ((long) Arrays.binarySearch(costs, 0, distinct, candidateCosts[k]) << 32) | k;
+        Arrays.sort(keys, 0, size);
+
+        if (leftByRight.length < columns)
+            leftByRight = new int[columns];
+        Arrays.fill(leftByRight, 0, columns, -1);
+        for (int k = 0; k < size; k++) {
+            int candidate = (int) keys[k];
+            int row = candidateRows[candidate];
+            int column = candidateColumns[candidate];
+            if (assignment[row] == -1 && leftByRight[column] == -1) {
+                assignment[row] = column;
+                leftByRight[column] = row;
+            }
+        }
+    }
+
+    /**
+     * Group the candidates by left vertex, with a dummy right vertex per left vertex when the given
+     * dummy cost is a number.
+     */
+    private void group(boolean transposed, int left, double dummyCost) {
+        int[] lefts = transposed ? candidateColumns : candidateRows;
+        int[] rights = transposed ? candidateRows : candidateColumns;
+        int right = transposed ? rows : columns;
+        boolean dummies = !Double.isNaN(dummyCost);
+        int edges = dummies ? size + left : size;
+        if (starts.length < left + 1)
+            starts = new int[left + 1];
+        Arrays.fill(starts, 0, left + 1, dummies ? 1 : 0);
+        for (int k = 0; k < size; k++)
+            starts[lefts[k]]++;
+        for (int vertex = 1; vertex < left; vertex++)
+            starts[vertex] += starts[vertex - 1];
+        starts[left] = edges;
+        if (adjacentVertices.length < edges) {
+            adjacentVertices = new int[edges];
+            adjacentCosts = new double[edges];
+        }
+        if (dummies)
+            for (int vertex = 0; vertex < left; vertex++) {
+                int position = --starts[vertex];
+                adjacentVertices[position] = right + vertex;
+                adjacentCosts[position] = dummyCost;
+            }
+        // The starts are the ends of the groups, and end up being their beginnings once filled.
+        for (int k = size - 1; k >= 0; k--) {
+            int position = --starts[lefts[k]];
+            adjacentVertices[position] = rights[k];
+            adjacentCosts[position] = candidateCosts[k];
+        }
+    }
+
+    private void prepare(int left, int right) {
+        if (rightByLeft.length < left) {
+            rightByLeft = new int[left];
+            assignedCosts = new double[left];
+        }
+        Arrays.fill(rightByLeft, 0, left, -1);
+        if (leftByRight.length < right)
+            leftByRight = new int[right];
+        Arrays.fill(leftByRight, 0, right, -1);
+        if (potentials.length < right) {
+            potentials = new double[right];
+            distances = new double[right];
+            predecessors = new int[right];
+            predecessorCosts = new double[right];
+            reachedStamps = new int[right];
+            scannedStamps = new int[right];
+            todo = new int[right];
+            scanned = new int[right];
+            stamp = 0;
+        }
+        Arrays.fill(potentials, 0, right, 0D);
+    }
+
+    /**
+     * Assign the given left vertex along a shortest augmenting path, in costs reduced by the
+     * potentials of the right vertices, the potential of a left vertex being the reduced cost of its
+     * assigned pair, which is then zero.
+     *
+     * @return false if there is no augmenting path, the vertex being left unassigned.
+     */
+    private boolean augment(int source) {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(reachedStamps, 0);
+            Arrays.fill(scannedStamps, 0);
+            stamp = 1;
+        }
+        int todoSize = 0;
+        int scannedSize = 0;
+        int vertex = source;
+        double base = 0D;
+        while (true) {
+            for (int k = starts[vertex]; k < starts[vertex + 1]; k++) {
+                int other = adjacentVertices[k];
+                if (scannedStamps[other] == stamp)
+                    continue;
+                double distance = base + adjacentCosts[k] - potentials[other];
+                if (reachedStamps[other] != stamp) {
+                    reachedStamps[other] = stamp;
+                    todo[todoSize++] = other;
+                } else if (distance >= distances[other])
+                    continue;
+                distances[other] = distance;
+                predecessors[other] = vertex;
+                predecessorCosts[other] = adjacentCosts[k];
+            }
+            if (todoSize == 0)
+                return false;
+
+            int closest = 0;
+            for (int k = 1; k < todoSize; k++) {
+                double distance = distances[todo[k]];
+                double best = distances[todo[closest]];
+                if (distance < best || distance == best && leftByRight[todo[k]] == -1)
+                    closest = k;
+            }
+            int other = todo[closest];
+            todo[closest] = todo[--todoSize];
+
+            if (leftByRight[other] == -1) {
+                double length = distances[other];
+                for (int k = 0; k < scannedSize; k++)
+                    potentials[scanned[k]] += distances[scanned[k]] - length;
+                while (true) {
+                    int previous = predecessors[other];
+                    int next = rightByLeft[previous];
+                    leftByRight[other] = previous;
+                    rightByLeft[previous] = other;
+                    assignedCosts[previous] = predecessorCosts[other];
+                    if (previous == source)
+                        return true;
+                    other = next;
+                }
+            }
+
+            scannedStamps[other] = stamp;
+            scanned[scannedSize++] = other;
+            vertex = leftByRight[other];
+            base = distances[other] - (assignedCosts[vertex] - potentials[other]);
+        }
+    }
+
+}
@@ -21,6 +21,7 @@
 package com.github.gumtreediff.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -123,4 +124,72 @@ public final class StringAlgorithms {
         return indexes;
     }
 
+    /**
+     * Myers' O(ND) difference algorithm on two sequences of symbols (e.g. line ids).
+     * @param maxEdits the maximal number of insertions and deletions to explore.
+     * @return the matching indexes of the sequences (in increasing order), as in
+     *     {@link #lcss(String, String)}, or null if more than maxEdits edits are required.
+     */
+    public static List<int[]> myers(int[] a, int[] b, int maxEdits) {
+        int prefix = 0;
+        while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix])
+            prefix++;
+        int suffix = 0;
+        while (suffix < a.length - prefix && suffix < b.length - prefix
+                && a[a.length - 1 - suffix] == b[b.length - 1 - suffix])
+            suffix++;
+
+        int n = a.length - prefix - suffix;
+        int m = b.length - prefix - suffix;
+        int max = Math.min(n + m, maxEdits);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+
+        int found = -1;
+        for (int d = 0; d <= max && found == -1; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1] : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[prefix + x] == b[prefix + y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+        }
+        if (found == -1)
+            return null;
+
+        List<int[]> indexes = new ArrayList<>();
+        for (int i = 0; i < suffix; i++)
+            indexes.add(new int[] {a.length - 1 - i, b.length - 1 - i});
+        int x = n;
+        int y = m;
+        for (int d = found; d >= 0; d--) {
+            int[] prev = trace.get(d); // prev[k + d + 1] is the furthest x on diagonal k before step d
+            int k = x - y;
+            int prevK = (k == -d || (k != d && prev[k - 1 + d + 1] < prev[k + 1 + d + 1])) ? k + 1 : k - 1;
+            int prevX = prev[prevK + d + 1];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+                indexes.add(new int[] {prefix + x, prefix + y});
+            }
+            x = prevX;
+            y = prevY;
+        }
+        for (int i = prefix - 1; i >= 0; i--)
+            indexes.add(new int[] {i, i});
+        Collections.reverse(indexes);
+        return indexes;
+    }
+
 }
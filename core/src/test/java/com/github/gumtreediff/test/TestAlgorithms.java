@@ -20,12 +20,14 @@
 package com.github.gumtreediff.test;
 
 import com.github.gumtreediff.utils.HungarianAlgorithm;
+import com.github.gumtreediff.utils.SparseAssignment;
 import com.github.gumtreediff.utils.StringAlgorithms;
 import org.junit.Test;
 import static org.junit.Assert.assertThat;
 import static org.hamcrest.CoreMatchers.*;
 
 import java.util.List;
+import java.util.Random;
 
 public class TestAlgorithms {
 
@@ -60,4 +62,82 @@ public class TestAlgorithms {
         assertThat(result[2], is(2));
     }
 
+    @Test
+    public void testSparseAssignment() {
+        SparseAssignment a = new SparseAssignment();
+        a.reset(3, 3);
+        for (int i = 0; i < 3; i++)
+            for (int j = 0; j < 3; j++)
+                a.add(i, j, i == j ? 2D : 3D);
+        a.solve();
+        assertThat(a.getColumn(0), is(0));
+        assertThat(a.getColumn(1), is(1));
+        assertThat(a.getColumn(2), is(2));
+
+        // Row 0 can only take column 0, which row 1 prefers: the cheapest full assignment wins.
+        a.reset(2, 2);
+        a.add(0, 0, 5D);
+        a.add(1, 0, 1D);
+        a.add(1, 1, 2D);
+        a.solve();
+        assertThat(a.getColumn(0), is(0));
+        assertThat(a.getColumn(1), is(1));
+
+        // Only one row can be assigned, the cheapest one.
+        a.reset(2, 1);
+        a.add(0, 0, 12D);
+        a.add(1, 0, 2D);
+        a.solve();
+        assertThat(a.getColumn(0), is(-1));
+        assertThat(a.getColumn(1), is(0));
+
+        a.reset(2, 2);
+        a.add(0, 0, 1D);
+        a.add(0, 1, 2D);
+        a.add(1, 0, 2D);
+        a.add(1, 1, 10D);
+        a.solveGreedily();
+        assertThat(a.getColumn(0), is(0));
+        assertThat(a.getColumn(1), is(1));
+        a.solve();
+        assertThat(a.getColumn(0), is(1));
+        assertThat(a.getColumn(1), is(0));
+    }
+
+    @Test
+    public void testSparseAssignmentAgainstHungarianAlgorithm() {
+        Random random = new Random(42);
+        SparseAssignment a = new SparseAssignment();
+        for (int t = 0; t < 200; t++) {
+            int rows = 1 + random.nextInt(8);
+            int columns = 1 + random.nextInt(8);
+            double[][] costMatrix = new double[rows][columns];
+            a.reset(rows, columns);
+            for (int i = 0; i < rows; i++)
+                for (int j = 0; j < columns; j++) {
+                    costMatrix[i][j] = random.nextInt(10);
+                    a.add(i, j, costMatrix[i][j]);
+                }
+            a.solve();
+            int[] expected = new HungarianAlgorithm(costMatrix).execute();
+            double expectedCost = 0D;
+            double actualCost = 0D;
+            int size = 0;
+            boolean[] assigned = new boolean[columns];
+            for (int i = 0; i < rows; i++) {
+                if (expected[i] != -1)
+                    expectedCost += costMatrix[i][expected[i]];
+                int j = a.getColumn(i);
+                if (j != -1) {
+                    assertThat(assigned[j], is(false));
+                    assigned[j] = true;
+                    actualCost += costMatrix[i][j];
+                    size++;
+                }
+            }
+            assertThat(size, is(Math.min(rows, columns)));
+            assertThat(actualCost, is(expectedCost));
+        }
+    }
+
 }
@@ -0,0 +1,149 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.optimal.rted.RtedAlgorithm;
+import com.github.gumtreediff.matchers.optimal.zs.ZsMatcher;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Cancellation;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TestCancellation {
+
+    private static ITree randomTree(int size, long seed) {
+        Random random = new Random(seed);
+        TreeContext ctx = new TreeContext();
+        List<ITree> trees = new ArrayList<>();
+        ITree root = ctx.createTree(0, "", "Root");
+        trees.add(root);
+        for (int i = 1; i < size; i++) {
+            ITree t = ctx.createTree(1 + random.nextInt(5), "l" + random.nextInt(20), "Node");
+            trees.get(random.nextInt(trees.size())).addChild(t);
+            trees.add(t);
+        }
+        ctx.setRoot(root);
+        ctx.validate();
+        return root;
+    }
+
+    @After
+    public void clearInterruptedStatus() {
+        Thread.interrupted();
+    }
+
+    private static void assertCancelled(Runnable r) {
+        Thread.currentThread().interrupt();
+        try {
+            r.run();
+            fail("Expected a CancellationException");
+        } catch (CancellationException e) {
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void testCheckpoints() {
+        ITree src = randomTree(50, 1);
+        ITree dst = randomTree(50, 2);
+        assertCancelled(() -> new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore()).match());
+        assertCancelled(() -> new ZsMatcher(src, dst, new MappingStore()).match());
+        assertCancelled(() -> new RtedAlgorithm(1D, 1D, 1D).nonNormalizedTreeDist(src, dst));
+
+        Matcher m = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        m.match();
+        assertCancelled(() -> new ActionGenerator(src, dst, m.getMappings()).generate());
+    }
+
+    @Test
+    public void testCancelMidRun() throws InterruptedException {
+        ITree src = randomTree(1500, 1);
+        ITree dst = randomTree(1500, 2);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            started.countDown();
+            try {
+                new ZsMatcher(src, dst, new MappingStore()).match();
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        });
+        worker.start();
+        started.await();
+        Thread.sleep(100);
+        worker.interrupt();
+        worker.join(10000);
+        assertFalse(worker.isAlive());
+        assertTrue(outcome.get() instanceof CancellationException);
+    }
+
+    @Test
+    public void testExternalProcessDestroyed() throws Exception {
+        Assume.assumeTrue(new File("/bin/sleep").canExecute());
+        Process p = new ProcessBuilder("/bin/sleep", "30").start();
+        Thread caller = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            caller.interrupt();
+        });
+        interrupter.start();
+        try {
+            Cancellation.readOutput(p);
+            fail("Expected a CancellationException");
+        } catch (CancellationException e) {
+            assertTrue(Thread.interrupted());
+        }
+        interrupter.join();
+        assertTrue(p.waitFor(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExternalProcessOutput() throws Exception {
+        Assume.assumeTrue(new File("/bin/echo").canExecute());
+        Process p = new ProcessBuilder("/bin/echo", "<tree/>").start();
+        assertEquals("<tree/>\n", Cancellation.readOutput(p));
+        assertEquals(0, p.exitValue());
+    }
+}
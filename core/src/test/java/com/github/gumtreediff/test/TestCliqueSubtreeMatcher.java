@@ -0,0 +1,189 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.heuristic.gt.CliqueSubtreeMatcher;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestCliqueSubtreeMatcher {
+
+    private final TreeContext ctx = new TreeContext();
+
+    private ITree tree(String label, ITree... children) {
+        ITree t = ctx.createTree(0, label, "node");
+        for (ITree c : children)
+            t.addChild(c);
+        return t;
+    }
+
+    /**
+     * @return a fragment of height 2, duplicated in the tests.
+     */
+    private ITree fragment() {
+        return tree("call", tree("name", tree("f")), tree("1"));
+    }
+
+    /**
+     * @return a unique subtree of height 2, mapped before the duplicated ones.
+     */
+    private ITree unique(String label) {
+        return tree("use", tree("name", tree(label)), tree("v"));
+    }
+
+    /**
+     * Number the trees in post-order, or in pre-order for the matcher to compute the similarity
+     * of the parents without the descendants being intervals of ids.
+     */
+    private static void validate(ITree src, ITree dst, boolean postOrderIds) {
+        for (ITree root : new ITree[] {src, dst}) {
+            root.refresh();
+            if (postOrderIds)
+                TreeUtils.postOrderNumbering(root);
+            else
+                TreeUtils.preOrderNumbering(root);
+            assertEquals(postOrderIds, TreeUtils.hasPostOrderIds(root));
+        }
+    }
+
+    private static MappingStore match(ITree src, ITree dst) {
+        Matcher m = new CliqueSubtreeMatcher(src, dst, new MappingStore());
+        m.match();
+        return m.getMappings();
+    }
+
+    private static void assertMapped(MappingStore mappings, ITree src, ITree dst) {
+        assertSame(dst, mappings.getDst(src));
+        for (int i = 0; i < src.getChildren().size(); i++)
+            assertMapped(mappings, src.getChild(i), dst.getChild(i));
+    }
+
+    @Test
+    public void testDuplicatedFragments() {
+        testDuplicatedFragments(true);
+        testDuplicatedFragments(false);
+    }
+
+    private void testDuplicatedFragments(boolean postOrderIds) {
+        ITree[] srcs = {fragment(), fragment()};
+        ITree[] dsts = {fragment(), fragment()};
+        ITree src = tree("root", tree("a", unique("u1"), srcs[0]), tree("b", unique("u2"), srcs[1]));
+        ITree dst = tree("root", tree("a2", unique("u1"), dsts[0]), tree("b2", unique("u2"), dsts[1]));
+        validate(src, dst, postOrderIds);
+
+        MappingStore mappings = match(src, dst);
+        assertMapped(mappings, srcs[0], dsts[0]);
+        assertMapped(mappings, srcs[1], dsts[1]);
+        for (ITree t : src.getTrees())
+            if (mappings.hasSrc(t))
+                assertTrue(dst.getTrees().contains(mappings.getDst(t)));
+        assertEquals(2 * 4 + 2 * 4, mappings.asSet().size());
+    }
+
+    @Test
+    public void testParentSimilarity() {
+        testParentSimilarity(true);
+        testParentSimilarity(false);
+    }
+
+    /**
+     * The parents of the fragments are swapped: the fragments are paired by the similarity of
+     * their parents rather than by their positions or ids.
+     */
+    private void testParentSimilarity(boolean postOrderIds) {
+        ITree[] srcs = {fragment(), fragment()};
+        ITree[] dsts = {fragment(), fragment()};
+        ITree src = tree("root", tree("a", unique("u1"), srcs[0]), tree("b", unique("u2"), srcs[1]));
+        ITree dst = tree("root", tree("b2", unique("u2"), dsts[1]), tree("a2", unique("u1"), dsts[0]));
+        validate(src, dst, postOrderIds);
+
+        MappingStore mappings = match(src, dst);
+        assertMapped(mappings, srcs[0], dsts[0]);
+        assertMapped(mappings, srcs[1], dsts[1]);
+    }
+
+    @Test
+    public void testUnbalancedClique() {
+        testUnbalancedClique(true);
+        testUnbalancedClique(false);
+    }
+
+    /**
+     * Three copies in the source, two in the destination: the copy whose parent has no
+     * counterpart in the destination is left unmapped.
+     */
+    private void testUnbalancedClique(boolean postOrderIds) {
+        ITree[] srcs = {fragment(), fragment(), fragment()};
+        ITree[] dsts = {fragment(), fragment()};
+        ITree src = tree("root", tree("a", unique("u1"), srcs[0]), tree("b", unique("u2"), srcs[1]),
+                tree("c", unique("u3"), srcs[2]));
+        ITree dst = tree("root", tree("c2", unique("u3"), dsts[1]), tree("a2", unique("u1"), dsts[0]));
+        validate(src, dst, postOrderIds);
+
+        MappingStore mappings = match(src, dst);
+        assertMapped(mappings, srcs[0], dsts[0]);
+        assertMapped(mappings, srcs[2], dsts[1]);
+        assertFalse(mappings.hasSrc(srcs[1]));
+    }
+
+    /**
+     * A clique of k copies on each side, every copy being in the same parent, is ranked by the
+     * positions of the copies: each copy is mapped to the one at the same position.
+     */
+    @Test
+    public void testLargeClique() {
+        int k = 500;
+        ITree src = tree("root");
+        ITree dst = tree("root2");
+        for (int i = 0; i < k; i++) {
+            src.addChild(fragment());
+            dst.addChild(fragment());
+        }
+        validate(src, dst, true);
+
+        MappingStore mappings = match(src, dst);
+        for (int i = 0; i < k; i++)
+            assertMapped(mappings, src.getChild(i), dst.getChild(i));
+    }
+
+    @Test
+    public void testCompleteGumtree() {
+        ITree[] srcs = {fragment(), fragment()};
+        ITree[] dsts = {fragment(), fragment()};
+        ITree src = tree("root", tree("a", unique("u1"), srcs[0]), tree("b", unique("u2"), srcs[1]));
+        ITree dst = tree("root", tree("b", unique("u2"), dsts[1], tree("x")), tree("a", unique("u1"), dsts[0]));
+        validate(src, dst, true);
+
+        Matcher m = new CompositeMatchers.CompleteGumtreeMatcher(src, dst, new MappingStore());
+        m.match();
+        assertMapped(m.getMappings(), srcs[0], dsts[0]);
+        assertMapped(m.getMappings(), srcs[1], dsts[1]);
+        assertSame(dst, m.getMappings().getDst(src));
+    }
+}
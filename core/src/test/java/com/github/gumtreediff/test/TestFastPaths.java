@@ -0,0 +1,95 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.matchers.IdenticalTreesMatcher;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.FastPaths;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class TestFastPaths {
+
+    private static TreeContext buildTree(String leafLabel) {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(0, "", "root");
+        ITree a = ctx.createTree(1, "a", "node");
+        ITree b = ctx.createTree(1, "b", "node");
+        ITree c = ctx.createTree(2, leafLabel, "leaf");
+        a.addChild(c);
+        root.addChild(a);
+        root.addChild(b);
+        ctx.setRoot(root);
+        ctx.validate();
+        return ctx;
+    }
+
+    @Test
+    public void testIdenticalTrees() {
+        ITree src = buildTree("c").getRoot();
+        ITree dst = buildTree("c").getRoot();
+        assertTrue(IdenticalTreesMatcher.areIdentical(src, dst));
+        Matcher m = new IdenticalTreesMatcher(src, dst, new MappingStore());
+        m.match();
+        assertEquals(src.getSize(), m.getMappingSet().size());
+        for (ITree t : src.getTrees())
+            assertEquals(t.getId(), m.getMappings().getDst(t).getId());
+        assertFalse(IdenticalTreesMatcher.areIdentical(src, buildTree("d").getRoot()));
+    }
+
+    @Test
+    public void testSameContent() throws IOException {
+        File f1 = File.createTempFile("gumtree", ".txt");
+        File f2 = File.createTempFile("gumtree", ".txt");
+        try {
+            Files.write(f1.toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+            Files.write(f2.toPath(), "class A {}".getBytes(StandardCharsets.UTF_8));
+            assertTrue(FastPaths.haveSameContent(f1, f2));
+            Files.write(f2.toPath(), "class B {}".getBytes(StandardCharsets.UTF_8));
+            assertFalse(FastPaths.haveSameContent(f1, f2));
+            assertFalse(FastPaths.haveSameContentQuietly(f1, new File(f1.getPath() + ".missing")));
+        } finally {
+            f1.delete();
+            f2.delete();
+        }
+    }
+
+    @Test
+    public void testCounters() {
+        FastPaths.reset();
+        FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+        FastPaths.record(FastPaths.Kind.FULL_DIFF);
+        FastPaths.record(FastPaths.Kind.FULL_DIFF);
+        assertEquals(1, FastPaths.count(FastPaths.Kind.IDENTICAL_CONTENT));
+        assertEquals(0, FastPaths.count(FastPaths.Kind.ISOMORPHIC_TREES));
+        assertEquals(3, FastPaths.total());
+        assertTrue(FastPaths.report().startsWith("diffs: 3"));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import static org.junit.Assert.*;
+
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.Label;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.hash.HashUtils;
+import com.github.gumtreediff.tree.hash.RollingHashGenerator;
+import org.junit.Test;
+
+public class TestLabel {
+
+    private static final String TEXT = "foo(bar + 1, été)";
+
+    @Test
+    public void testLabel() {
+        Label label = new Label(TEXT, 4, 7);
+        assertEquals(7, label.length());
+        assertEquals('b', label.charAt(0));
+        assertEquals("bar + 1", label.toString());
+        assertEquals("bar + 1".hashCode(), label.hashCode());
+        assertEquals("ar", label.subSequence(1, 3).toString());
+        assertEquals(new Label("bar + 1", 0, 7), label);
+        assertTrue(Label.contentEquals("bar + 1", label));
+        assertFalse(Label.contentEquals("bar + 2", label));
+        assertFalse(Label.contentEquals(null, label));
+        StringBuilder b = new StringBuilder("x");
+        label.appendTo(b);
+        assertEquals("xbar + 1", b.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testLabelOutOfText() {
+        new Label(TEXT, 4, TEXT.length());
+    }
+
+    @Test
+    public void testLazyLabels() {
+        ITree lazy = createTree(true);
+        ITree plain = createTree(false);
+        // Hashing non ASCII labels creates their String
+        assertTrue(lazy.getChild(0).getLabelSequence() instanceof Label);
+        assertTrue(lazy.getChild(2).getLabelSequence() instanceof String);
+        assertTrue(lazy.hasLabel());
+        assertFalse(lazy.getChild(1).hasLabel());
+        assertTrue(lazy.hasSameTypeAndLabel(plain));
+        assertEquals(plain.getHash(), lazy.getHash());
+
+        ITree copy = lazy.getChild(0).deepCopy();
+        assertTrue(copy.getLabelSequence() instanceof Label);
+        assertEquals("bar + 1", copy.getLabel());
+        assertTrue(copy.getLabelSequence() instanceof String);
+        assertTrue(lazy.isIsomorphicTo(plain));
+    }
+
+    @Test
+    public void testSameHashes() {
+        for (boolean lazy : new boolean[] {true, false}) {
+            ITree root = createTree(lazy);
+            new RollingHashGenerator.Md5RollingHashGenerator().hash(root);
+            for (ITree t : root.getTrees()) {
+                if (t.isLeaf())
+                    assertEquals(HashUtils.BASE * HashUtils.md5(HashUtils.inSeed(t))
+                            + HashUtils.md5(HashUtils.outSeed(t)), t.getHash());
+            }
+            assertEquals(-1, root.getChild(1).getType());
+        }
+    }
+
+    @Test
+    public void testNullLabel() {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(1, "foo", "Call");
+        ITree arg = ctx.createTree(2, "bar", "Name");
+        root.addChild(arg);
+        ctx.setRoot(root);
+        root.setLabel(null);
+        arg.setLabel((Label) null);
+        ctx.validate();
+        for (ITree t : root.getTrees()) {
+            assertEquals(ITree.NO_LABEL, t.getLabel());
+            assertEquals(ITree.NO_LABEL, t.getLabelSequence());
+            assertFalse(t.hasLabel());
+        }
+
+        arg.setLabel(new StringBuilder("baz"));
+        assertEquals("baz", arg.getLabelSequence());
+        assertEquals("baz", arg.getLabel());
+    }
+
+    private static ITree createTree(boolean lazy) {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(1, lazy ? null : TEXT, "Call");
+        ITree arg = ctx.createTree(2, lazy ? null : "bar + 1", "Infix");
+        ITree empty = ctx.createTree(-1, lazy ? null : "", "Empty");
+        ITree accent = ctx.createTree(3, lazy ? null : "été", "Name");
+        if (lazy) {
+            root.setLabel(new Label(TEXT, 0, TEXT.length()));
+            arg.setLabel(new Label(TEXT, 4, 7));
+            empty.setLabel(new Label(TEXT, 0, 0));
+            accent.setLabel(new Label(TEXT, 13, 3));
+        }
+        root.addChild(arg);
+        root.addChild(empty);
+        root.addChild(accent);
+        ctx.setRoot(root);
+        ctx.validate();
+        return root;
+    }
+
+}
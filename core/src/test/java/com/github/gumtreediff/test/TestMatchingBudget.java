@@ -0,0 +1,148 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.matchers.MatchingBudget;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class TestMatchingBudget {
+
+    /**
+     * Builds a method whose statements are only recovered by the bottom-up phase
+     * when the method name changes.
+     */
+    private static ITree build(String name, String value) {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(0, "", "CompilationUnit");
+        ITree method = ctx.createTree(1, name, "Method");
+        for (int i = 0; i < 3; i++) {
+            ITree stmt = ctx.createTree(2, "", "Statement");
+            ITree assignment = ctx.createTree(5, "=", "Assignment");
+            assignment.addChild(ctx.createTree(3, "x" + i, "Name"));
+            assignment.addChild(ctx.createTree(4, i == 0 ? value : Integer.toString(i), "Literal"));
+            stmt.addChild(assignment);
+            method.addChild(stmt);
+        }
+        root.addChild(method);
+        ctx.setRoot(root);
+        ctx.validate();
+        return root;
+    }
+
+    @Test
+    public void testUnlimitedBudget() {
+        ITree src = build("foo", "0");
+        ITree dst = build("bar", "42");
+        CompositeMatchers.BudgetedGumtree budgeted = new CompositeMatchers.BudgetedGumtree(
+                src, dst, new MappingStore(), MatchingBudget.unlimited());
+        budgeted.match();
+        assertFalse(budgeted.isDegraded());
+        Matcher classic = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        classic.match();
+        assertEquals(classic.getMappingSet(), budgeted.getMappingSet());
+    }
+
+    @Test
+    public void testNodeBudget() {
+        long before = MatchingBudget.count(MatchingBudget.Trigger.NODES);
+        ITree src = build("foo", "0");
+        ITree dst = build("bar", "42");
+        CompositeMatchers.BudgetedGumtree budgeted = new CompositeMatchers.BudgetedGumtree(
+                src, dst, new MappingStore(), new MatchingBudget(MatchingBudget.UNLIMITED, 0));
+        budgeted.match();
+        assertTrue(budgeted.isDegraded());
+        assertEquals(EnumSet.of(MatchingBudget.Trigger.NODES), budgeted.getBudget().getTriggers());
+        assertEquals(before + 1, MatchingBudget.count(MatchingBudget.Trigger.NODES));
+
+        // Top-down mappings and containers are kept, the recovery of the first statement is skipped.
+        assertTrue(budgeted.getMappings().has(src, dst));
+        assertTrue(budgeted.getMappings().has(src.getChild(0), dst.getChild(0)));
+        assertTrue(budgeted.getMappings().has(src.getChild(0).getChild(1), dst.getChild(0).getChild(1)));
+        assertFalse(budgeted.getMappings().hasSrc(src.getChild(0).getChild(0)));
+    }
+
+    @Test
+    public void testFiniteNodeBudget() {
+        // ZS is given the unmatched descendants of the two statements mapped top-down
+        // (2 x (3 + 3 + 1 + 1) nodes), of the method (5 + 5 nodes) and of the root (1 + 1 nodes),
+        // much less than the sizes of the mapped containers.
+        ITree src = build("foo", "0");
+        ITree dst = build("bar", "42");
+        Matcher classic = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        classic.match();
+        CompositeMatchers.BudgetedGumtree budgeted = new CompositeMatchers.BudgetedGumtree(
+                src, dst, new MappingStore(), new MatchingBudget(MatchingBudget.UNLIMITED, 28));
+        budgeted.match();
+        assertFalse(budgeted.isDegraded());
+        assertEquals(classic.getMappingSet(), budgeted.getMappingSet());
+
+        // Only the recovery of the root is skipped, which finds nothing.
+        budgeted = new CompositeMatchers.BudgetedGumtree(
+                src, dst, new MappingStore(), new MatchingBudget(MatchingBudget.UNLIMITED, 27));
+        budgeted.match();
+        assertTrue(budgeted.isDegraded());
+        assertEquals(EnumSet.of(MatchingBudget.Trigger.NODES), budgeted.getBudget().getTriggers());
+        assertEquals(classic.getMappingSet(), budgeted.getMappingSet());
+
+        // The recovery of the method is skipped as well.
+        budgeted = new CompositeMatchers.BudgetedGumtree(
+                src, dst, new MappingStore(), new MatchingBudget(MatchingBudget.UNLIMITED, 17));
+        budgeted.match();
+        assertTrue(budgeted.isDegraded());
+        assertTrue(budgeted.getMappings().has(src.getChild(0), dst.getChild(0)));
+        assertTrue(classic.getMappings().hasSrc(src.getChild(0).getChild(0).getChild(0)));
+        assertFalse(budgeted.getMappings().hasSrc(src.getChild(0).getChild(0).getChild(0)));
+    }
+
+    @Test
+    public void testDeadline() {
+        ITree src = build("foo", "0");
+        ITree dst = build("bar", "42");
+        MatchingBudget budget = new MatchingBudget(0, MatchingBudget.UNLIMITED);
+        CompositeMatchers.BudgetedGumtree budgeted = new CompositeMatchers.BudgetedGumtree(
+                src, dst, new MappingStore(), budget);
+        budgeted.match();
+        assertTrue(budgeted.isDegraded());
+        assertTrue(budget.getTriggers().contains(MatchingBudget.Trigger.DEADLINE));
+        assertTrue(budgeted.getMappings().has(src, dst));
+        // Neither the top-down nor the bottom-up search has run.
+        assertFalse(budgeted.getMappings().hasSrc(src.getChild(0).getChild(1)));
+        assertFalse(budgeted.getMappings().hasSrc(src.getChild(0)));
+    }
+
+    @Test
+    public void testRegistered() {
+        Matcher m = Matchers.getInstance().getMatcher("gumtree-budgeted", build("foo", "0"), build("foo", "0"));
+        assertTrue(m instanceof CompositeMatchers.BudgetedGumtree);
+        m.match();
+        assertFalse(((CompositeMatchers.BudgetedGumtree) m).isDegraded());
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.metrics.DiffMetrics.Counter;
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
+import com.github.gumtreediff.metrics.MetricsRegistry;
+import com.github.gumtreediff.metrics.RetainedSize;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.Label;
+import com.github.gumtreediff.tree.TreeContext;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestMetrics {
+
+    private static TreeContext buildTree(String leafLabel) {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(0, "", "root");
+        ITree a = ctx.createTree(1, "a", "node");
+        ITree b = ctx.createTree(1, "b", "node");
+        ITree c = ctx.createTree(2, leafLabel, "leaf");
+        a.addChild(c);
+        root.addChild(a);
+        root.addChild(b);
+        ctx.setRoot(root);
+        ctx.validate();
+        return ctx;
+    }
+
+    @After
+    public void disable() {
+        Instrumentation.setListener(null);
+        Instrumentation.setMemoryAccounting(false);
+    }
+
+    @Test
+    public void testDisabled() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Instrumentation.setListener(metrics);
+        Instrumentation.setListener(null);
+        Instrumentation.setMemoryAccounting(true);
+        assertFalse(Instrumentation.isEnabled());
+        assertFalse(Instrumentation.isMemoryAccounting());
+
+        Instrumentation.startDiff("diff");
+        ITree src = buildTree("c").getRoot();
+        ITree dst = buildTree("d").getRoot();
+        Matcher m = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        m.match();
+        new ActionGenerator(src, dst, m.getMappings()).generate();
+        long start = Instrumentation.start(Phase.PARSE);
+        Instrumentation.end(Phase.PARSE, start);
+        Instrumentation.count(Counter.ACTIONS, 1);
+        Instrumentation.endDiff();
+
+        assertEquals(0, metrics.getDiffCount());
+        assertTrue(metrics.getDiffs().isEmpty());
+        MetricsRegistry.Record totals = metrics.getTotals();
+        for (Phase p : Phase.values()) {
+            assertEquals(0, totals.getCalls(p));
+            assertEquals(0, totals.getAllocated(p));
+        }
+        for (Counter c : Counter.values())
+            assertEquals(0, totals.getCount(c));
+    }
+
+    @Test
+    public void testDiff() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Instrumentation.setListener(metrics);
+        Instrumentation.startDiff("diff");
+        ITree src = buildTree("c").getRoot();
+        ITree dst = buildTree("d").getRoot();
+        Matcher m = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        m.match();
+        List<Action> actions = new ActionGenerator(src, dst, m.getMappings()).generate();
+        Instrumentation.endDiff();
+        Instrumentation.count(Counter.MAPPINGS, 1); // Outside of a diff: only in the totals.
+
+        assertEquals(1, metrics.getDiffCount());
+        MetricsRegistry.Record r = metrics.getDiffs().get(0);
+        assertEquals("diff", r.getName());
+        assertEquals(2, r.getCalls(Phase.VALIDATE));
+        assertEquals(1, r.getCalls(Phase.TOP_DOWN_MATCH));
+        assertEquals(1, r.getCalls(Phase.BOTTOM_UP_MATCH));
+        assertEquals(1, r.getCalls(Phase.ACTIONS));
+        assertEquals(0, r.getCalls(Phase.PARSE));
+        assertTrue(r.getCalls(Phase.LAST_CHANCE_MATCH) > 0);
+        assertEquals(r.getCalls(Phase.LAST_CHANCE_MATCH), r.getCount(Counter.LAST_CHANCE_CALLS));
+        assertTrue(r.getCount(Counter.LAST_CHANCE_NODES) > 0);
+        assertEquals(actions.size(), r.getCount(Counter.ACTIONS));
+        assertEquals(0, r.getCount(Counter.MAPPINGS));
+        assertEquals(1, metrics.getTotals().getCount(Counter.MAPPINGS));
+
+        JsonObject json = new JsonParser().parse(metrics.toJson()).getAsJsonObject();
+        assertEquals(1, json.get("diffs").getAsInt());
+        JsonObject record = json.getAsJsonArray("records").get(0).getAsJsonObject();
+        assertEquals("diff", record.get("name").getAsString());
+        assertEquals(1, record.getAsJsonObject("phases").getAsJsonObject("actions").get("calls").getAsInt());
+        assertFalse(record.getAsJsonObject("phases").has("parse"));
+        assertEquals(actions.size(), record.getAsJsonObject("counters").get("actions").getAsInt());
+        assertEquals(1, json.getAsJsonObject("totals").getAsJsonObject("counters").get("mappings").getAsInt());
+    }
+
+    @Test
+    public void testMemoryAccounting() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Instrumentation.setListener(metrics);
+        assertFalse(Instrumentation.isMemoryAccounting());
+        Instrumentation.setMemoryAccounting(true);
+        assertTrue(Instrumentation.isMemoryAccounting());
+        Instrumentation.startDiff("diff");
+        TreeContext src = buildTree("c");
+        TreeContext dst = buildTree("d");
+        Matcher m = new CompositeMatchers.ClassicGumtree(src.getRoot(), dst.getRoot(), new MappingStore());
+        m.match();
+        List<Action> actions = new ActionGenerator(src.getRoot(), dst.getRoot(), m.getMappings()).generate();
+        Instrumentation.endDiff();
+        MetricsRegistry.Record r = metrics.getDiffs().get(0);
+        assertTrue(r.getAllocated(Phase.ACTIONS) > 0);
+        assertTrue(metrics.toJson().contains("\"allocated\""));
+
+        long srcSize = RetainedSize.of(src);
+        assertTrue(srcSize > 0);
+        assertEquals(srcSize, RetainedSize.of(dst));
+        src.getRoot().addChild(src.createTree(3, "e", "leaf"));
+        assertTrue(RetainedSize.of(src) > srcSize);
+        assertTrue(RetainedSize.of(m.getMappings()) > RetainedSize.of(new MappingStore()));
+        assertTrue(RetainedSize.of(actions) > RetainedSize.of(new ArrayList<>()));
+    }
+
+    @Test
+    public void testRetainedSizeOfSharedLabels() {
+        String source = "int a = b;";
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(0, "", "root");
+        for (int i = 0; i < 3; i++)
+            root.addChild(ctx.createTree(1, "", "leaf"));
+        ctx.setRoot(root);
+        long unlabelled = RetainedSize.of(ctx);
+
+        Label[] labels = {new Label(source, 0, 3), new Label(source, 4, 1), new Label(source, 8, 1)};
+        for (int i = 0; i < 3; i++)
+            root.getChild(i).setLabel(labels[i]);
+        // Three 32 bytes labels, and their source counted once: 24 bytes + a char[10] of 40 bytes.
+        assertEquals(unlabelled + 3 * 32 + 64, RetainedSize.of(ctx));
+
+        // A created String is counted once created: 24 bytes + a char[3] of 24 bytes.
+        labels[1].toString();
+        assertEquals(unlabelled + 3 * 32 + 64 + 48, RetainedSize.of(ctx));
+        root.getChild(0).getLabel();
+        assertEquals(unlabelled + 2 * 32 + 64 + 2 * 48, RetainedSize.of(ctx));
+    }
+
+    @Test
+    public void testMaxDiffs() {
+        MetricsRegistry metrics = new MetricsRegistry(1);
+        Instrumentation.setListener(metrics);
+        for (int i = 0; i < 3; i++) {
+            Instrumentation.startDiff("diff" + i);
+            Instrumentation.count(Counter.ACTIONS, 2);
+            Instrumentation.endDiff();
+        }
+        assertEquals(3, metrics.getDiffCount());
+        assertEquals(1, metrics.getDiffs().size());
+        assertEquals("diff0", metrics.getDiffs().get(0).getName());
+        assertEquals(6, metrics.getTotals().getCount(Counter.ACTIONS));
+    }
+}
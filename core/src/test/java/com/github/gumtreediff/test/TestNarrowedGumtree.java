@@ -0,0 +1,107 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.actions.ActionGenerator;
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.actions.model.Update;
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.matchers.heuristic.gt.IdenticalMembersMatcher;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestNarrowedGumtree {
+
+    private static ITree member(TreeContext ctx, String name, String value) {
+        ITree m = ctx.createTree(1, name, "Method");
+        ITree stmt = ctx.createTree(2, "", "Statement");
+        stmt.addChild(ctx.createTree(3, "x", "Name"));
+        stmt.addChild(ctx.createTree(4, value, "Literal"));
+        m.addChild(ctx.createTree(5, name, "MethodName"));
+        m.addChild(stmt);
+        return m;
+    }
+
+    private static TreeContext buildClass(String changedValue) {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(0, "", "CompilationUnit");
+        ITree type = ctx.createTree(6, "A", "TypeDeclaration");
+        type.addChild(member(ctx, "foo", "1"));
+        type.addChild(member(ctx, "bar", changedValue));
+        type.addChild(member(ctx, "baz", "3"));
+        root.addChild(type);
+        ctx.setRoot(root);
+        ctx.validate();
+        return ctx;
+    }
+
+    @Test
+    public void testIdenticalMembers() {
+        ITree src = buildClass("2").getRoot();
+        ITree dst = buildClass("42").getRoot();
+        Matcher m = new IdenticalMembersMatcher(src, dst, new MappingStore());
+        m.match();
+        ITree srcType = src.getChild(0);
+        ITree dstType = dst.getChild(0);
+        assertTrue(m.getMappings().has(src, dst));
+        assertTrue(m.getMappings().has(srcType, dstType));
+        for (ITree t : srcType.getChild(0).getTrees())
+            assertTrue(m.getMappings().hasSrc(t));
+        for (ITree t : srcType.getChild(2).getTrees())
+            assertTrue(m.getMappings().hasSrc(t));
+        for (ITree t : srcType.getChild(1).getTrees())
+            assertFalse(m.getMappings().hasSrc(t));
+    }
+
+    @Test
+    public void testSameScriptAsClassicGumtree() {
+        ITree src = buildClass("2").getRoot();
+        ITree dst = buildClass("42").getRoot();
+        Matcher narrowed = new CompositeMatchers.NarrowedGumtree(src, dst, new MappingStore());
+        narrowed.match();
+        assertEquals(src.getSize(), narrowed.getMappingSet().size());
+        List<Action> actions = new ActionGenerator(src, dst, narrowed.getMappings()).generate();
+        assertEquals(1, actions.size());
+        assertTrue(actions.get(0) instanceof Update);
+
+        Matcher classic = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        classic.match();
+        assertEquals(classic.getMappingSet(), narrowed.getMappingSet());
+    }
+
+    @Test
+    public void testRegistered() {
+        ITree src = buildClass("2").getRoot();
+        ITree dst = buildClass("2").getRoot();
+        Matcher m = Matchers.getInstance().getMatcher("gumtree-narrowed", src, dst);
+        assertTrue(m instanceof CompositeMatchers.NarrowedGumtree);
+        m.match();
+        assertEquals(src.getSize(), m.getMappingSet().size());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.metrics.DiffMetrics.Phase;
+import com.github.gumtreediff.metrics.Instrumentation;
+import com.github.gumtreediff.metrics.MetricsRegistry;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.ParallelParsing;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TestParallelParsing {
+
+    private Executor previous;
+
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        previous = ParallelParsing.getExecutor();
+        pool = Executors.newSingleThreadExecutor();
+        ParallelParsing.setExecutor(pool);
+    }
+
+    @After
+    public void tearDown() {
+        ParallelParsing.setExecutor(previous);
+        pool.shutdownNow();
+        Instrumentation.setListener(null);
+    }
+
+    @Test
+    public void testParseBoth() throws IOException {
+        Thread caller = Thread.currentThread();
+        Pair<Thread, Thread> threads = ParallelParsing.parseBoth(Thread::currentThread, Thread::currentThread);
+        assertSame(caller, threads.getSecond());
+
+        ParallelParsing.setExecutor(null);
+        threads = ParallelParsing.parseBoth(Thread::currentThread, Thread::currentThread);
+        assertSame(caller, threads.getFirst());
+        assertSame(caller, threads.getSecond());
+    }
+
+    @Test
+    public void testMetricsOfBothSides() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry();
+        Instrumentation.setListener(metrics);
+        Instrumentation.startDiff("diff");
+        CountDownLatch started = new CountDownLatch(1);
+        Pair<Thread, Thread> threads = ParallelParsing.parseBoth(() -> {
+            started.countDown();
+            return validate();
+        }, () -> {
+            try {
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return validate();
+        });
+        assertNotSame(threads.getFirst(), threads.getSecond());
+        Instrumentation.endDiff();
+        assertEquals(2, metrics.getDiffs().get(0).getCalls(Phase.VALIDATE));
+
+        // The pool thread no longer measures for the diff.
+        pool.submit(TestParallelParsing::validate).get();
+        assertEquals(3, metrics.getTotals().getCalls(Phase.VALIDATE));
+        assertEquals(2, metrics.getDiffs().get(0).getCalls(Phase.VALIDATE));
+    }
+
+    private static Thread validate() {
+        Instrumentation.end(Phase.VALIDATE, Instrumentation.start(Phase.VALIDATE));
+        return Thread.currentThread();
+    }
+
+    @Test
+    public void testSourceFailureFirst() {
+        try {
+            ParallelParsing.parseBoth(() -> {
+                throw new IOException("src");
+            }, () -> {
+                throw new IllegalStateException("dst");
+            });
+            fail();
+        } catch (IOException e) {
+            assertEquals("src", e.getMessage());
+        }
+        try {
+            ParallelParsing.parseBoth(() -> "src", () -> {
+                throw new IOException("dst");
+            });
+            fail();
+        } catch (IOException e) {
+            assertEquals("dst", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testPipeline() {
+        // Nested parsing in a saturated pool must not deadlock.
+        List<String> results = ParallelParsing.pipeline(Arrays.asList("a", "b", "c"), s -> {
+            try {
+                return ParallelParsing.parseBoth(() -> s + "1", () -> s + "2");
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }, p -> p.getFirst() + p.getSecond());
+        assertEquals(Arrays.asList("a1a2", "b1b2", "c1c2"), results);
+
+        ParallelParsing.setExecutor(null);
+        assertEquals(Arrays.asList(1, 2), ParallelParsing.pipeline(Arrays.asList("a", "bb"), String::length, i -> i));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.test;
+
+import com.github.gumtreediff.matchers.CompositeMatchers;
+import com.github.gumtreediff.matchers.MappingStore;
+import com.github.gumtreediff.matchers.Matcher;
+import com.github.gumtreediff.matchers.Matchers;
+import com.github.gumtreediff.matchers.TextDiffMatcher;
+import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.StringAlgorithms;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestTextDiffMatcher {
+
+    /**
+     * Builds a tree with one statement per line of the form "name=value;".
+     */
+    private static ITree build(String content) {
+        TreeContext ctx = new TreeContext();
+        ITree root = ctx.createTree(0, "", "Block");
+        root.setPos(0);
+        root.setLength(content.length());
+        int pos = 0;
+        for (String line : content.split("\n")) {
+            int eq = line.indexOf('=');
+            ITree stmt = ctx.createTree(1, "", "Assignment");
+            stmt.setPos(pos);
+            stmt.setLength(line.length());
+            ITree name = ctx.createTree(2, line.substring(0, eq), "Name");
+            name.setPos(pos);
+            name.setLength(eq);
+            ITree value = ctx.createTree(3, line.substring(eq + 1, line.length() - 1), "Literal");
+            value.setPos(pos + eq + 1);
+            value.setLength(line.length() - eq - 2);
+            stmt.addChild(name);
+            stmt.addChild(value);
+            root.addChild(stmt);
+            pos += line.length() + 1;
+        }
+        ctx.setRoot(root);
+        ctx.validate();
+        root.setMetadata(TextDiffMatcher.SOURCE, content);
+        return root;
+    }
+
+    @Test
+    public void testMyers() {
+        int[] a = {1, 2, 3, 4, 5, 6};
+        int[] b = {1, 3, 4, 7, 5, 6};
+        List<int[]> matches = StringAlgorithms.myers(a, b, 10);
+        assertEquals(5, matches.size());
+        int[][] expected = {{0, 0}, {2, 1}, {3, 2}, {4, 4}, {5, 5}};
+        for (int i = 0; i < expected.length; i++)
+            assertArrayEquals(expected[i], matches.get(i));
+        assertNull(StringAlgorithms.myers(new int[] {1, 2, 3}, new int[] {4, 5, 6}, 2));
+        assertEquals(0, StringAlgorithms.myers(new int[0], new int[] {1}, 1).size());
+    }
+
+    @Test
+    public void testUnchangedLinesAreMapped() {
+        ITree src = build("a=1;\nb=2;\nc=3;\n");
+        ITree dst = build("a=1;\nz=0;\nb=2;\nc=4;\n");
+        Matcher m = new TextDiffMatcher(src, dst, new MappingStore());
+        m.match();
+        assertTrue(m.getMappings().has(src.getChild(0), dst.getChild(0)));
+        assertTrue(m.getMappings().has(src.getChild(1), dst.getChild(2)));
+        assertTrue(m.getMappings().has(src.getChild(1).getChild(1), dst.getChild(2).getChild(1)));
+        assertFalse(m.getMappings().hasSrc(src.getChild(2)));
+        assertFalse(m.getMappings().hasSrc(src));
+        assertEquals(6, m.getMappingSet().size());
+    }
+
+    @Test
+    public void testNoSources() {
+        ITree src = build("a=1;\n");
+        ITree dst = build("a=1;\n");
+        Matcher m = new TextDiffMatcher(src, dst, new MappingStore(), null, null);
+        m.match();
+        assertEquals(0, m.getMappingSet().size());
+    }
+
+    @Test
+    public void testSameMappingsAsClassicGumtree() {
+        ITree src = build("a=1;\nb=2;\nc=3;\nd=4;\n");
+        ITree dst = build("a=1;\nb=2;\nc=5;\nd=4;\n");
+        Matcher m = Matchers.getInstance().getMatcher("gumtree-text", src, dst);
+        assertTrue(m instanceof CompositeMatchers.TextGuidedGumtree);
+        m.match();
+        Matcher classic = new CompositeMatchers.ClassicGumtree(src, dst, new MappingStore());
+        classic.match();
+        assertEquals(classic.getMappingSet(), m.getMappingSet());
+    }
+}
@@ -22,12 +22,16 @@ package com.github.gumtreediff.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 import org.junit.Test;
 
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeCursor;
 import com.github.gumtreediff.tree.TreeUtils;
 
 public class TestTreeUtils {
@@ -170,4 +174,123 @@ public class TestTreeUtils {
         Iterator<ITree> it = TreeUtils.breadthFirstIterator(big);
         compareListIterator(lst, it);
     }
+
+    private static final int DEPTH = 100000;
+
+    @Test
+    public void testDeepTree() {
+        TreeContext ctx = new TreeContext();
+        ITree root = TreeUtils.buildTree(ctx, 0, i -> ctx.createTree(1, Integer.toString(i), "node"),
+                i -> i < DEPTH ? Arrays.asList(i + 1) : Collections.<Integer>emptyList());
+        assertSame(root, ctx.getRoot());
+        ctx.validate();
+
+        ITree leaf = root;
+        while (!leaf.isLeaf())
+            leaf = leaf.getChild(0);
+        assertEquals(Integer.toString(DEPTH), leaf.getLabel());
+        assertEquals(DEPTH, leaf.getDepth());
+        assertEquals(DEPTH, root.getHeight());
+        assertEquals(DEPTH + 1, root.getSize());
+        assertEquals(0, leaf.getId());
+        assertEquals(DEPTH, root.getId());
+        assertEquals(DEPTH, leaf.getParents().size());
+        assertSame(root, leaf.getParents().get(DEPTH - 1));
+
+        List<ITree> preOrder = TreeUtils.preOrder(root);
+        assertSame(root, preOrder.get(0));
+        assertSame(leaf, preOrder.get(DEPTH));
+        List<ITree> postOrder = TreeUtils.postOrder(root);
+        assertSame(leaf, postOrder.get(0));
+        assertSame(root, postOrder.get(DEPTH));
+        assertEquals(preOrder, TreeUtils.breadthFirst(root));
+
+        ITree copy = root.deepCopy();
+        assertNotSame(root, copy);
+        assertTrue(root.isIsomorphicTo(copy));
+        assertEquals(DEPTH + 1, copy.getTrees().size());
+    }
+
+    @Test
+    public void testBuildTree() {
+        TreeContext ctx = new TreeContext();
+        ITree root = TreeUtils.buildTree(ctx, "a", s -> ctx.createTree(0, s, "node"), s -> {
+            switch (s) {
+                case "a": return Arrays.asList("b", "e");
+                case "b": return Arrays.asList("c", "d");
+                default: return Collections.<String>emptyList();
+            }
+        });
+        ctx.validate();
+        assertEquals("[(0@@a[(0@@b[(0@@c)][(0@@d)])][(0@@e)])]", root.toStaticHashString());
+        assertSame(root, root.getChild(1).getParent());
+    }
+
+    private static ITree buildSmallTree() {
+        TreeContext ctx = new TreeContext();
+        ITree root = TreeUtils.buildTree(ctx, "a", s -> ctx.createTree(0, s, "node"), s -> {
+            switch (s) {
+                case "a": return Arrays.asList("b", "e");
+                case "b": return Arrays.asList("c", "d");
+                default: return Collections.<String>emptyList();
+            }
+        });
+        ctx.validate();
+        return root;
+    }
+
+    private static String labels(TreeCursor cursor) {
+        StringBuilder b = new StringBuilder();
+        for (ITree t = cursor.next(); t != null; t = cursor.next())
+            b.append(t.getLabel());
+        return b.toString();
+    }
+
+    @Test
+    public void testTreeCursor() {
+        ITree root = buildSmallTree();
+        assertEquals("abcde", labels(TreeCursor.preOrder(root)));
+        assertEquals("cdbea", labels(TreeCursor.postOrder(root)));
+        assertEquals("bcde", labels(TreeCursor.descendants(root)));
+        assertEquals("cd", labels(TreeCursor.descendants(root.getChild(0))));
+        assertEquals("", labels(TreeCursor.descendants(root.getChild(1))));
+
+        TreeCursor cursor = TreeCursor.postOrder(root);
+        for (int i = 0; i <= 4; i++)
+            assertEquals(i, cursor.nextId());
+        assertFalse(cursor.hasNext());
+        assertEquals(ITree.NO_ID, cursor.nextId());
+        assertNull(cursor.next());
+
+        assertEquals("bcd", labels(cursor.resetPreOrder(root.getChild(0))));
+        assertEquals("cdb", labels(cursor.resetPostOrder(root.getChild(0))));
+        assertEquals("e", labels(cursor.resetPostOrder(root.getChild(1))));
+    }
+
+    @Test
+    public void testLeafIterator() {
+        ITree root = buildSmallTree();
+        Iterator<ITree> it = TreeUtils.leafIterator(TreeUtils.postOrderIterator(root));
+        StringBuilder b = new StringBuilder();
+        while (it.hasNext())
+            b.append(it.next().getLabel());
+        assertEquals("cde", b.toString());
+    }
+
+    @Test
+    public void testDescendantIds() {
+        ITree root = buildSmallTree();
+        assertTrue(TreeUtils.hasPostOrderIds(root));
+        ITree b = root.getChild(0);
+        assertEquals(0, TreeUtils.firstDescendantId(b));
+        assertTrue(TreeUtils.isDescendantId(b, 0));
+        assertTrue(TreeUtils.isDescendantId(b, 1));
+        assertFalse(TreeUtils.isDescendantId(b, 2));
+        assertFalse(TreeUtils.isDescendantId(b, 3));
+        assertTrue(TreeUtils.isDescendantId(root, 3));
+
+        TreeUtils.preOrderNumbering(root);
+        assertFalse(TreeUtils.hasPostOrderIds(root));
+    }
 }
+
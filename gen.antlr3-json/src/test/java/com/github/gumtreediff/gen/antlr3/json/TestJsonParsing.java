@@ -39,4 +39,16 @@ public class TestJsonParsing {
         assertEquals(37, tree.getSize());
     }
 
+    @Test
+    public void testGeneratorReuse() throws Exception {
+        AntlrJsonTreeGenerator generator = new AntlrJsonTreeGenerator();
+        ITree first = generator.generateFromString("{\"a\": [1, 2], \"b\": {\"c\": true}}").getRoot();
+        ITree second = generator.generateFromString("[3, {\"d\": null}]").getRoot();
+        ITree fresh = new AntlrJsonTreeGenerator().generateFromString("[3, {\"d\": null}]").getRoot();
+        assertTrue(second.isIsomorphicTo(fresh));
+        assertEquals(fresh.getPos(), second.getPos());
+        assertEquals(fresh.getLength(), second.getLength());
+        assertFalse(first.isIsomorphicTo(second));
+    }
+
 }
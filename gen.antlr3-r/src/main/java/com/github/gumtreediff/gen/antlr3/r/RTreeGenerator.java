@@ -32,6 +32,12 @@ public class RTreeGenerator extends AbstractAntlr3TreeGenerator<RLexer, RParser>
         return new RLexer(stream);
     }
 
+    @Override
+    protected void resetLexer(RLexer lexer) {
+        lexer.incomplete_depth = 0;
+        lexer.incomplete_stack[0] = 0;
+    }
+
     @Override
     protected RParser getParser(TokenStream tokens) {
         return new RParser(tokens);
@@ -38,4 +38,17 @@ public class TestRGenerator {
         assertEquals(8, t.getSize());
     }
 
+    @Test
+    public void testGeneratorReuse() throws IOException {
+        RTreeGenerator generator = new RTreeGenerator();
+        try {
+            generator.generateFromString("f <- function(x) { (x + 1");
+        } catch (RuntimeException e) {
+            // Incomplete input, the lexer stops inside a block.
+        }
+        ITree t = generator.generateFromString("v <- c(1,2,3);").getRoot();
+        assertEquals(67, t.getType());
+        assertEquals(8, t.getSize());
+    }
+
 }
@@ -50,6 +50,11 @@ public class XmlTreeGenerator extends AbstractAntlr3TreeGenerator<XMLLexer, XMLP
         return new XMLLexer(stream);
     }
 
+    @Override
+    protected void resetLexer(XMLLexer lexer) {
+        lexer.tagMode = false;
+    }
+
     @Override
     protected XMLParser getParser(TokenStream tokens) {
         return new XMLParser(tokens);
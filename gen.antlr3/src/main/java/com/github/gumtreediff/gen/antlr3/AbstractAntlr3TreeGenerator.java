@@ -17,15 +17,15 @@
  * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
  * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
  */
-
 package com.github.gumtreediff.gen.antlr3;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.antlr.runtime.*;
 import org.antlr.runtime.tree.CommonTree;
@@ -33,23 +33,49 @@ import org.antlr.runtime.tree.CommonTree;
 import com.github.gumtreediff.gen.TreeGenerator;
 import com.github.gumtreediff.tree.ITree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
 
+/**
+ * Base class of the ANTLR 3 generators. The lexer, token stream and parser are created for the
+ * first input and then reused for the next inputs parsed by the same generator instance, e.g. through
+ * {@link #generateFromFiles(java.util.List)}. Generators whose grammar keeps state in members of its
+ * lexer or parser reset it in {@link #resetLexer(Lexer)} and {@link #resetParser(Parser)}.
+ */
 public abstract class AbstractAntlr3TreeGenerator<L extends Lexer, P extends Parser> extends TreeGenerator {
 
-    private Deque<ITree> trees = new ArrayDeque<>();
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final Map<Class<?>, String[]> TYPE_LABELS = new ConcurrentHashMap<>();
 
     protected static Map<Integer, Integer> chars;
 
     protected TokenStream tokens;
 
+    private L lexer;
+
+    private P parser;
+
+    private String[] typeLabels;
+
     public AbstractAntlr3TreeGenerator() {
     }
 
     protected CommonTree getStartSymbol(Reader r) throws RecognitionException, IOException {
         ANTLRStringStream stream = getAntlrStream(r);
-        L lexer = getLexer(stream);
-        tokens = getTokenStream(lexer);
-        P parser = getParser(tokens);
+        if (lexer == null) {
+            lexer = getLexer(stream);
+            tokens = getTokenStream(lexer);
+            parser = getParser(tokens);
+        } else {
+            lexer.setCharStream(stream);
+            resetLexer(lexer);
+            if (tokens.getClass() == CommonTokenStream.class)
+                ((CommonTokenStream) tokens).setTokenSource(lexer);
+            else
+                tokens = getTokenStream(lexer);
+            parser.setTokenStream(tokens);
+            resetParser(parser);
+        }
         return getTreeFromRule(getStartRule(parser));
     }
 
@@ -57,18 +83,47 @@ public abstract class AbstractAntlr3TreeGenerator<L extends Lexer, P extends Par
 
     protected abstract P getParser(TokenStream tokens);
 
+    /**
+     * Reset the state kept in the members of a lexer before it is reused for another input.
+     */
+    protected void resetLexer(L lexer) {
+    }
+
+    /**
+     * Reset the state kept in the members of a parser before it is reused for another input.
+     */
+    protected void resetParser(P parser) {
+    }
+
     protected abstract RuleReturnScope getStartRule(P parser) throws RecognitionException;
 
     protected CommonTree getTreeFromRule(RuleReturnScope startRule) {
         return (CommonTree) startRule.getTree();
     }
 
+    /**
+     * Read the whole input in a character array, used as is by the returned stream.
+     */
     protected ANTLRStringStream getAntlrStream(Reader r) throws IOException {
-        return new ANTLRReaderStream(r);
+        try (Reader reader = r) {
+            char[] data = new char[BUFFER_SIZE];
+            int length = 0;
+            int read;
+            while ((read = reader.read(data, length, data.length - length)) != -1) {
+                length += read;
+                if (length == data.length)
+                    data = Arrays.copyOf(data, data.length * 2);
+            }
+            return new ANTLRStringStream(data, length);
+        }
     }
 
+    /**
+     * The tokens are only read by the generator, grammars rewriting them in their actions
+     * should return a {@link TokenRewriteStream} instead.
+     */
     protected TokenStream getTokenStream(L lexer) {
-        return new TokenRewriteStream(lexer);
+        return new CommonTokenStream(lexer);
     }
 
     @Override
@@ -88,14 +143,37 @@ public abstract class AbstractAntlr3TreeGenerator<L extends Lexer, P extends Par
     protected abstract String[] getTokenNames();
 
     protected String getTokenName(int tokenType) {
-        String[] names = getTokenNames();
-        if (tokenType < 0 || tokenType >= names.length)
+        String[] labels = getTypeLabels();
+        if (tokenType < 0 || tokenType >= labels.length)
             return ITree.NO_LABEL;
-        return names[tokenType];
+        return labels[tokenType];
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @return the type label of each token type of the grammar, computed once per generator class.
+     */
+    private String[] getTypeLabels() {
+        if (typeLabels == null)
+            typeLabels = TYPE_LABELS.computeIfAbsent(getClass(), c -> getTokenNames().clone());
+        return typeLabels;
+    }
+
+    /**
+     * Build the tree of the given ANTLR tree, without recursion so that deep trees do not
+     * overflow the call stack.
+     */
     protected void buildTree(TreeContext context, CommonTree ct) {
+        TreeUtils.buildTree(context, ct, node -> createTree(context, node), AbstractAntlr3TreeGenerator::getChildren);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<CommonTree> getChildren(CommonTree ct) {
+        if (ct.getChildCount() == 0)
+            return Collections.emptyList();
+        return (List<CommonTree>) ct.getChildren();
+    }
+
+    private ITree createTree(TreeContext context, CommonTree ct) {
         int type = ct.getType();
         String tokenName = getTokenName(type);
         String label = ct.getText();
@@ -108,18 +186,7 @@ public abstract class AbstractAntlr3TreeGenerator<L extends Lexer, P extends Par
         int stop = stopPos(ct.getTokenStopIndex());
         t.setPos(start);
         t.setLength(stop - start + 1); // FIXME check if this + 1 make sense ?
-
-        if (trees.isEmpty())
-            context.setRoot(t);
-        else
-            t.setParentAndUpdateChildren(trees.peek());
-
-        if (ct.getChildCount() > 0) {
-            trees.push(t);
-            for (CommonTree cct : (List<CommonTree>) ct.getChildren())
-                buildTree(context, cct);
-            trees.pop();
-        }
+        return t;
     }
 
     private int startPos(int tkPosition) {
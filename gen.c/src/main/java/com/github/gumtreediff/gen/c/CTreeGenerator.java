@@ -26,6 +26,7 @@ import com.github.gumtreediff.io.TreeIoUtils;
 import com.github.gumtreediff.tree.TreeContext;
 import com.github.gumtreediff.tree.TreeContext.MetadataSerializers;
 import com.github.gumtreediff.tree.TreeContext.MetadataUnserializers;
+import com.github.gumtreediff.utils.Cancellation;
 
 import java.io.*;
 import java.util.Arrays;
@@ -70,22 +71,13 @@ public class CTreeGenerator extends TreeGenerator {
         b.directory(f.getParentFile());
         try {
             Process p = b.start();
-            StringBuffer buf = new StringBuffer();
-            br = new BufferedReader(new InputStreamReader(p.getInputStream()));
-            // TODO Why do we need to read and bufferize eveything, when we could/should only use generateFromStream
-            line = null;
-            while ((line = br.readLine()) != null)
-                buf.append(line + "\n");
-            p.waitFor();
+            String xml = Cancellation.readOutput(p);
             if (p.exitValue() != 0)
                 throw new RuntimeException(
-                    String.format("cgum Error [%d] %s\n", p.exitValue(), buf.toString())
+                    String.format("cgum Error [%d] %s\n", p.exitValue(), xml)
                 );
             r.close();
-            String xml = buf.toString();
             return TreeIoUtils.fromXml(CTreeGenerator.defaultUnserializers).generateFromString(xml);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
         } finally {
             f.delete();
         }
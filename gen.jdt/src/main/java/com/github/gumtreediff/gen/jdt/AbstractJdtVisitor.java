@@ -25,6 +25,7 @@ import java.util.Deque;
 
 import com.github.gumtreediff.gen.jdt.cd.EntityType;
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.Label;
 import com.github.gumtreediff.tree.TreeContext;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
@@ -55,8 +56,26 @@ public abstract class AbstractJdtVisitor extends ASTVisitor {
         push(type, typeName, "", startPosition, length);
     }
 
+    /**
+     * Push a node whose label String is only created if it is read.
+     */
+    protected void pushNode(ASTNode n, Label label) {
+        int type = n.getNodeType();
+        String typeName = n.getClass().getSimpleName();
+        push(type, typeName, label, n.getStartPosition(), n.getLength());
+    }
+
+    protected void push(int type, String typeName, Label label, int startPosition, int length) {
+        ITree t = context.createTree(type, ITree.NO_LABEL, typeName);
+        t.setLabel(label);
+        push(t, startPosition, length);
+    }
+
     protected void push(int type, String typeName, String label, int startPosition, int length) {
-        ITree t = context.createTree(type, label, typeName);
+        push(context.createTree(type, label, typeName), startPosition, length);
+    }
+
+    private void push(ITree t, int startPosition, int length) {
         t.setPos(startPosition);
         t.setLength(length);
 
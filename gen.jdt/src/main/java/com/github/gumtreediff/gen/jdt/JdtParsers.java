@@ -0,0 +1,138 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2011-2015 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ * Copyright 2011-2015 Floréal Morandat <florealm@gmail.com>
+ */
+
+package com.github.gumtreediff.gen.jdt;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared JDT parser setup. The compiler options are computed once and each thread keeps its own
+ * parser, which JDT resets after every parse.
+ * The language level is configured with the gt.jdt.jls (AST level, e.g. 8 for AST.JLS8) and
+ * gt.jdt.source (e.g. 1.8) properties; the available values depend on the version of JDT.
+ */
+public final class JdtParsers {
+
+    public static final int JLS_LEVEL = Integer.parseInt(System.getProperty("gt.jdt.jls", Integer.toString(AST.JLS8)));
+
+    public static final String SOURCE_LEVEL = System.getProperty("gt.jdt.source", JavaCore.VERSION_1_8);
+
+    private static final Map<String, String> OPTIONS = createOptions();
+
+    private static final ThreadLocal<ASTParser> PARSERS = ThreadLocal.withInitial(() -> ASTParser.newParser(JLS_LEVEL));
+
+    public static final int BATCH_SIZE = Integer.parseInt(System.getProperty("gt.jdt.batch", "100"));
+
+    private JdtParsers() {}
+
+    private static Map<String, String> createOptions() {
+        Map<String, String> options = JavaCore.getOptions();
+        options.put(JavaCore.COMPILER_COMPLIANCE, SOURCE_LEVEL);
+        options.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, SOURCE_LEVEL);
+        options.put(JavaCore.COMPILER_SOURCE, SOURCE_LEVEL);
+        options.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
+        return Collections.unmodifiableMap(options);
+    }
+
+    /**
+     * @param kind the kind of construct to parse, e.g. {@link ASTParser#K_COMPILATION_UNIT}.
+     */
+    public static ASTNode parse(char[] source, int kind) {
+        ASTParser parser = PARSERS.get();
+        parser.setKind(kind);
+        parser.setCompilerOptions(OPTIONS);
+        parser.setSource(source);
+        return parser.createAST(null);
+    }
+
+    /**
+     * Parse the given compilation units with {@link ASTParser#createASTs}, by batches of
+     * batchSize files sharing the same parser environment. Units are handed to the consumer
+     * as soon as they are parsed, with the index of their file.
+     * @throws IOException if a file has not been parsed, e.g. because it can not be read.
+     */
+    public static void parseFiles(List<File> files, int batchSize, BiConsumer<Integer, CompilationUnit> consumer)
+            throws IOException {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        for (int start = 0; start < files.size(); start += batchSize) {
+            int end = Math.min(files.size(), start + batchSize);
+            String[] paths = new String[end - start];
+            Map<String, Deque<Integer>> indexes = new HashMap<>();
+            for (int i = start; i < end; i++) {
+                paths[i - start] = files.get(i).getAbsolutePath();
+                indexes.computeIfAbsent(paths[i - start], k -> new ArrayDeque<>()).add(i);
+            }
+
+            ASTParser parser = PARSERS.get();
+            parser.setKind(ASTParser.K_COMPILATION_UNIT);
+            parser.setCompilerOptions(OPTIONS);
+            parser.setEnvironment(new String[0], new String[0], null, false);
+            parser.createASTs(paths, null, new String[0], new FileASTRequestor() {
+                @Override
+                public void acceptAST(String path, CompilationUnit unit) {
+                    Deque<Integer> index = indexes.get(path);
+                    if (index != null && !index.isEmpty())
+                        consumer.accept(index.poll(), unit);
+                }
+            }, null);
+
+            for (Map.Entry<String, Deque<Integer>> e : indexes.entrySet())
+                if (!e.getValue().isEmpty())
+                    throw new IOException("Unable to parse " + e.getKey());
+        }
+    }
+
+    /**
+     * Read the whole content of the given reader, and close it.
+     */
+    public static char[] readFully(Reader r) throws IOException {
+        try {
+            char[] buf = new char[8192];
+            int length = 0;
+            int n;
+            while ((n = r.read(buf, length, buf.length - length)) != -1) {
+                length += n;
+                if (length == buf.length)
+                    buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            return length == buf.length ? buf : Arrays.copyOf(buf, length);
+        } finally {
+            r.close();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package edu.lu.uni.serval.gen.jdt.exp;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.github.gumtreediff.gen.jdt.cd.CdJdtVisitor;
+import com.github.gumtreediff.tree.Label;
 
 import org.eclipse.jdt.core.dom.*;
 
@@ -15,6 +18,47 @@ import org.eclipse.jdt.core.dom.*;
  */
 public class ExpJdtVisitor extends CdJdtVisitor {
 	
+	private final Map<ASTNode, Label> labels = new IdentityHashMap<>();
+	
+	/**
+	 * False once the internal JDT class extended by SubtreeFlattener failed to link.
+	 */
+	private static volatile boolean flattenerLinked = true;
+	
+	/**
+	 * Same string as node.toString(), without flattening again the nodes
+	 * already flattened as part of the label of one of their ancestors.
+	 */
+	protected String label(ASTNode node) {
+		return lazyLabel(node).toString();
+	}
+	
+	/**
+	 * Same as {@link #label(ASTNode)}, the String being only created if the label is read.
+	 */
+	protected Label lazyLabel(ASTNode node) {
+		if (flattenerLinked) {
+			try {
+				return SubtreeFlattener.flatten(node, labels);
+			} catch (LinkageError e) {
+				flattenerLinked = false;
+			}
+		}
+		String label = node.toString();
+		return new Label(label, 0, label.length());
+	}
+	
+	/**
+	 * Same string as nodes.toString() for a list of nodes.
+	 */
+	protected String label(List<?> nodes) {
+		StringBuilder label = new StringBuilder("[");
+		for (int i = 0; i < nodes.size(); i ++) {
+			if (i > 0) label.append(", ");
+			lazyLabel((ASTNode) nodes.get(i)).appendTo(label);
+		}
+		return label.append("]").toString();
+	}
 	
 	@Override
 	public boolean visit(CompilationUnit node) {
@@ -29,7 +73,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(EnumConstantDeclaration node) {
-		pushNode(node, node.getName().toString());
+		pushNode(node, label(node.getName()));
         return true;
 	}
 	
@@ -46,17 +90,17 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     	int length = node.getLength();
     	List<?> modifiers = node.modifiers();
     	if (modifiers.size() > 0) {
-    		label += modifiers.toString();
+    		label += label(modifiers);
     		startPosition = ((ASTNode)  modifiers.get(0)).getStartPosition();
     	}
-    	label += node.getName().toString() + ", ";
+    	label += label(node.getName()) + ", ";
     	if (startPosition == 0) {
     		startPosition = node.getName().getStartPosition();
     	}
     	
     	List<?> interfaceTypes = node.superInterfaceTypes(); // type
     	if (interfaceTypes.size() > 0) {
-    		label += interfaceTypes.toString();
+    		label += label(interfaceTypes);
     	}
 
     	push(node.getNodeType(), node.getClass().getSimpleName(), label, startPosition, nodeStartPosition + length - startPosition);
@@ -70,7 +114,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(AnnotationTypeDeclaration node) {
-		pushNode(node, node.getName().toString());
+		pushNode(node, label(node.getName()));
 		return true;
 	}
 	
@@ -81,7 +125,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(AnnotationTypeMemberDeclaration node) {
-		pushNode(node, node.getName().toString());
+		pushNode(node, label(node.getName()));
 		return true;
 	}
 	
@@ -94,7 +138,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 	//  ----------------Annotation---------------
 	@Override
 	public boolean visit(MarkerAnnotation node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		return false;
 	}
 
@@ -105,7 +149,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(NormalAnnotation node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		return false;
 	}
 
@@ -116,7 +160,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(SingleMemberAnnotation node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		return false;
 	}
 
@@ -128,7 +172,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 	
     @Override
 	public boolean visit(ArrayAccess node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
     	Expression arrayExpression = node.getArray();
 		Expression indexExpression = node.getIndex();
 		arrayExpression.accept(this);
@@ -143,7 +187,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(ArrayCreation node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		ArrayType arrayType = node.getType();
 		arrayType.accept(this);
 		List<?> dimensions = node.dimensions();
@@ -162,7 +206,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(ArrayInitializer node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		List<?> expressions = node.expressions();
 		visitList(expressions);
 		return false;
@@ -175,7 +219,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(Assignment node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Expression leftHandExp = node.getLeftHandSide();
 		leftHandExp.accept(this);
 		String op = node.getOperator().toString();
@@ -193,7 +237,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(BooleanLiteral node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		return false;
 	}
 
@@ -204,7 +248,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(CastExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Type castType = node.getType();
 		castType.accept(this);
 		Expression exp = node.getExpression();
@@ -236,7 +280,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 		if (exp != null) { 
 			// Example: ClassInstanceCreation:trie
 			//          node:trie.new TSTNode('\0',node)
-			label = exp.toString();
+			label = label(exp);
 		}
 //		List<?> typeArguments = node.typeArguments();
 //		for (Object obj : typeArguments) {
@@ -245,9 +289,9 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 //			popNode();
 //		}
 		Type type = node.getType();
-		label += type.toString();
+		label += label(type);
 		List<?> arguments = node.arguments();
-		label += arguments.toString();
+		label += label(arguments);
 		pushNode(node, label);
 		
 		if (exp != null) exp.accept(this);
@@ -269,7 +313,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 	
 	@Override
 	public boolean visit(ConditionalExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Expression conditionalExp = node.getExpression();
 		Expression thenExp = node.getThenExpression(); 
 		Expression elseExp = node.getElseExpression();
@@ -286,7 +330,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(FieldAccess node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Expression exp = node.getExpression();
 		exp.accept(this);
 		SimpleName identifier = node.getName();
@@ -301,7 +345,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(InfixExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		
 		Expression leftExp = node.getLeftOperand();
 		leftExp.accept(this);
@@ -326,7 +370,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(InstanceofExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Expression exp = node.getLeftOperand();
 		exp.accept(this);
 		push(-3, "Instanceof", "instanceof", exp.getStartPosition() + exp.getLength() + 1, 10);
@@ -343,7 +387,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(LambdaExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		List<?> parameters = node.parameters();
 		visitList(parameters);
 		ASTNode body = node.getBody();
@@ -367,9 +411,9 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 		SimpleName methodName = node.getName();
 		List<?> arguments = node.arguments();
 		if (exp == null && arguments.size() == 0) {
-			pushNode(node, "MethodName:" + methodName.getFullyQualifiedName() + ":" + arguments.toString());
+			pushNode(node, "MethodName:" + methodName.getFullyQualifiedName() + ":" + label(arguments));
 		} else {
-			pushNode(node, node.toString());
+			pushNode(node, lazyLabel(node));
 			List<MethodInvocation> methods = new ArrayList<>();
 			while (exp != null) {
 				if (exp instanceof MethodInvocation) {
@@ -378,7 +422,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 					exp = method.getExpression();
 				} else {
 					if (exp instanceof Name) {
-						pushNode(exp, "Name:" + exp.toString());
+						pushNode(exp, "Name:" + label(exp));
 						popNode();
 					} else {
 						exp.accept(this);	
@@ -388,7 +432,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 			}
 			for (MethodInvocation method : methods) {
 				List<?> argumentsList = method.arguments();
-				pushNode(method, "MethodName:" + method.getName().getFullyQualifiedName() + ":" + argumentsList.toString());
+				pushNode(method, "MethodName:" + method.getName().getFullyQualifiedName() + ":" + label(argumentsList));
 				visitList(argumentsList);
 				popNode();
 			}
@@ -397,7 +441,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 //				pushNode(typeArgu, "TypeArgument:" + typeArgu.getClass().getSimpleName() + ":" + typeArgu.toString());
 //				popNode();
 //			}
-			push(42, "SimpleName", "MethodName:" + methodName.getFullyQualifiedName() + ":" + arguments.toString(),
+			push(42, "SimpleName", "MethodName:" + methodName.getFullyQualifiedName() + ":" + label(arguments),
 					methodName.getStartPosition(), node.getStartPosition() + node.getLength() - methodName.getStartPosition());
 	    	visitList(arguments);
 	    	popNode();
@@ -475,7 +519,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 	// ----------------Name----------------
 	@Override
 	public boolean visit(QualifiedName node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Name name = node.getQualifier();
 		SimpleName simpleName = node.getName();
 		name.accept(this);
@@ -528,7 +572,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(ParenthesizedExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Expression exp = node.getExpression();
 		exp.accept(this);
 		return false;
@@ -541,7 +585,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(PostfixExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Expression exp = node.getOperand();
 		exp.accept(this);
 		String op = node.getOperator().toString();
@@ -557,7 +601,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(PrefixExpression node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		String op = node.getOperator().toString();
 		push(-1, "Operator", op, node.getStartPosition(), op.length());
 		popNode();
@@ -584,7 +628,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(SuperFieldAccess node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Name className = node.getQualifier();
 		SimpleName identifier = node.getName();
 		if (className != null) {
@@ -601,14 +645,14 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(SuperMethodInvocation node) {
-		pushNode(node, node.toString());
+		pushNode(node, lazyLabel(node));
 		Name className = node.getQualifier();
 		if (className != null) {
 			className.accept(this);
 		}
 		SimpleName methodName = node.getName();
 		List<?> arguments = node.arguments();
-		pushNode(methodName, "MethodName:" + methodName.getFullyQualifiedName() + ":" + arguments.toString());
+		pushNode(methodName, "MethodName:" + methodName.getFullyQualifiedName() + ":" + label(arguments));
 		popNode();
 		visitList(arguments);
 		return false;
@@ -632,7 +676,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
     @Override
     public boolean visit(TypeLiteral node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
         return false;
     }
 
@@ -643,7 +687,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 	
     @Override
     public boolean visit(VariableDeclarationExpression node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
         List<?> modifiers = node.modifiers();
         for (Object obj : modifiers) {
         	IExtendedModifier modifier = (IExtendedModifier) obj;
@@ -665,7 +709,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     ////////
     @Override
    	public boolean visit(ArrayType node) {
-   		pushNode(node, node.toString());
+   		pushNode(node, lazyLabel(node));
    		Type type = node.getElementType();
    		type.accept(this);
 //   		List<?> dimensions = node.dimensions();
@@ -718,28 +762,28 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     	int length = node.getLength();
     	List<?> modifiers = node.modifiers();
     	if (modifiers.size() > 0) {
-    		label += modifiers.toString();
+    		label += label(modifiers);
     		startPosition = ((ASTNode)  modifiers.get(0)).getStartPosition();
     	}
-    	label += node.getName().toString() + ", ";
+    	label += label(node.getName()) + ", ";
     	if (startPosition == 0) {
     		startPosition = node.getName().getStartPosition();
     	}
     	
     	Type superClass = node.getSuperclassType();
     	if (superClass != null) {
-    		label += superClass.toString();
+    		label += label(superClass);
     	}
     	List<?> interfaceTypes = node.superInterfaceTypes(); // type
     	if (interfaceTypes.size() > 0) {
-    		label += interfaceTypes.toString();
+    		label += label(interfaceTypes);
     	}
     	
     	//push(int type, String typeName, String label, int startPosition, int length)
     	push(node.getNodeType(), node.getClass().getSimpleName(), label, startPosition, nodeStartPosition + length - startPosition);
 //    	pushNode(node, label);
     	visitList(modifiers);
-    	pushNode(node.getName(), "ClassName:" + node.getName().toString());
+    	pushNode(node.getName(), "ClassName:" + label(node.getName()));
     	popNode();
     	if (superClass != null) {
     		superClass.accept(this);
@@ -764,7 +808,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
         for (Object obj : modifiers) {
         	IExtendedModifier modifier = (IExtendedModifier) obj;
         	if (modifier.isModifier()) {
-        		nodeStr += modifier.toString() + ", ";
+        		nodeStr += label((ASTNode) modifier) + ", ";
         		realModifiers.add((Modifier)modifier);
         		if (startPosition == 0) {
         			startPosition = ((Modifier) modifier).getStartPosition();
@@ -775,9 +819,9 @@ public class ExpJdtVisitor extends CdJdtVisitor {
         if (startPosition == 0) {
         	startPosition = type.getStartPosition();
         }
-        nodeStr += type.toString() + ", ";
+        nodeStr += label(type) + ", ";
         List<?> fragments = node.fragments();
-        nodeStr += fragments.toString();
+        nodeStr += label(fragments);
 //        pushNode(node, nodeStr);
     	push(node.getNodeType(), node.getClass().getSimpleName(), nodeStr, startPosition, nodeStartPosition + length - startPosition);
     	
@@ -822,27 +866,27 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 		for (Object obj : modifiers) {
 			IExtendedModifier modifier = (IExtendedModifier) obj;
 			if (modifier.isModifier()) {
-				methodLabel += obj.toString() + ", ";
+				methodLabel += label((ASTNode) obj) + ", ";
 				realModifiers.add((Modifier) modifier);
 				if (startPosition == 0) {
 					startPosition = ((Modifier) modifier).getStartPosition();
 				}
 			}
 		}
-		methodLabel += (returnType == null) ? "void" : (returnType.toString()) + ", ";
+		methodLabel += (returnType == null) ? "void" : (label(returnType)) + ", ";
 //		methodLabel += "@@" + ((returnType == null) ? "void" : returnType.toString()) + ", ";
 		for (Object obj : typeParameters) {
-			methodLabel += obj.toString() + ", ";
+			methodLabel += label((ASTNode) obj) + ", ";
 		}
 		methodLabel += "MethodName:" + methodName + ", ";
 		if (startPosition == 0) {
 			startPosition = methodName.getStartPosition();
 		}
 		for (Object obj : parameters) {
-			methodLabel += obj.toString() + ", ";
+			methodLabel += label((ASTNode) obj) + ", ";
 		}
 		for (Object obj : exceptionTypes) {
-			methodLabel += obj.toString() + ", ";
+			methodLabel += label((ASTNode) obj) + ", ";
 		}
 //		pushNode(node, methodLabel);
 		push(node.getNodeType(), node.getClass().getSimpleName(), methodLabel, startPosition, nodeStartPosition + length - startPosition);
@@ -879,7 +923,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(NameQualifiedType node) {
     	// Name <b>.</b> { Annotation } SimpleName
-    	pushNode(node, node.toString());
+    	pushNode(node, lazyLabel(node));
     	return false;
     }
     
@@ -890,7 +934,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     
     @Override
     public boolean visit(ParameterizedType node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
         node.getType().accept(this);
         visitList(node.typeArguments());
         return false;
@@ -904,7 +948,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
     @Override
     public boolean visit(QualifiedType node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
         return false;
     }
 
@@ -927,7 +971,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(IntersectionType node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
 		return super.visit(node);
 	}
     
@@ -938,7 +982,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
 	@Override
 	public boolean visit(UnionType node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
 		return super.visit(node);
 	}
     
@@ -950,7 +994,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     
 	@Override
     public boolean visit(SingleVariableDeclaration node) {
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
         List<?> modifiers = node.modifiers();
         for (Object obj : modifiers) {
         	IExtendedModifier modifier = (IExtendedModifier) obj;
@@ -971,7 +1015,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     
     @Override
     public boolean visit(VariableDeclarationFragment node) {
-    	pushNode(node, node.toString());
+    	pushNode(node, lazyLabel(node));
     	SimpleName variableName = node.getName();
     	variableName.accept(this);
         Expression exp = node.getInitializer();
@@ -995,7 +1039,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     
     @Override
     public boolean visit(CatchClause node) {
-        pushNode(node, node.getException().toString());
+        pushNode(node, label(node.getException()));
         SingleVariableDeclaration exc = node.getException();
         exc.accept(this);
         Statement body = node.getBody();
@@ -1018,9 +1062,9 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     public boolean visit(AssertStatement node) {
     	Expression exp = node.getExpression();
     	Expression msg = node.getMessage();
-        String value = exp.getClass().getSimpleName() + COLON + exp.toString();
+        String value = exp.getClass().getSimpleName() + COLON + label(exp);
         if (msg != null) {
-            value += ", Msg-" + msg.getClass().getSimpleName() + COLON + msg.toString();
+            value += ", Msg-" + msg.getClass().getSimpleName() + COLON + label(msg);
             pushNode(node, value);
             exp.accept(this);
             msg.accept(this);
@@ -1033,7 +1077,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
     @Override
     public boolean visit(ConstructorInvocation node) {
-        String nodeStr = node.toString();
+        String nodeStr = label(node);
         nodeStr = nodeStr.substring(0, nodeStr.length() - 1);
         pushNode(node, nodeStr);
 //        List<?> typeArguments = node.typeArguments();
@@ -1046,7 +1090,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(DoStatement node) {
     	Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         Statement body = node.getBody();
         if (body != null) {
 //        	push(8, "Block", "DoBody", body.getStartPosition(), body.getLength());
@@ -1070,7 +1114,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     public boolean visit(EnhancedForStatement node) {
     	SingleVariableDeclaration parameter = node.getParameter();
     	Expression exp = node.getExpression();
-        pushNode(node, parameter.toString() + ", " + exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, label(parameter) + ", " + exp.getClass().getSimpleName() + COLON + label(exp));
         parameter.accept(this);
         exp.accept(this);
         Statement body = node.getBody();
@@ -1086,7 +1130,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(ExpressionStatement node) {
     	Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         exp.accept(this);
         return false;
     }
@@ -1097,11 +1141,11 @@ public class ExpJdtVisitor extends CdJdtVisitor {
         List<?> init = node.initializers();
 		Expression exp = node.getExpression();
 		List<?> update = node.updaters();
-        value += init.toString() + ";";
+        value += label(init) + ";";
 		if (exp != null) {
-			value += exp.toString() + "; ";
+			value += label(exp) + "; ";
 		}
-		value += update.toString();
+		value += label(update);
         
         pushNode(node, value);
 		visitList(init);
@@ -1123,7 +1167,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(IfStatement node) {
         Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         exp.accept(this);
         Statement stmt = node.getThenStatement();
         if (stmt != null) {
@@ -1158,7 +1202,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     public boolean visit(ReturnStatement node) {
     	Expression exp = node.getExpression();
     	if (exp != null) {
-    		pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+    		pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
     		exp.accept(this);
     	} else {
             pushNode(node, "");
@@ -1168,9 +1212,9 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
     @Override
     public boolean visit(SuperConstructorInvocation node) {
-    	String nodeStr = node.toString();
+    	String nodeStr = label(node);
     	nodeStr = nodeStr.substring(0, nodeStr.length() - 1);
-        pushNode(node, node.toString());
+        pushNode(node, lazyLabel(node));
         visitList(node.arguments());
         return false;
     }
@@ -1179,7 +1223,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     public boolean visit(SwitchCase node) {
     	Expression exp = node.getExpression();
     	if (exp != null) {
-    		pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+    		pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
     		exp.accept(this);
     	} else {
     		pushNode(node, "default");
@@ -1190,7 +1234,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(SwitchStatement node) {
     	Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         exp.accept(this);
 //        int startPosition = exp.getStartPosition();
 //        int length1 = exp.getLength();
@@ -1204,7 +1248,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(SynchronizedStatement node) {
     	Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         exp.accept(this);
         Statement body = node.getBody();
         if (body != null) {
@@ -1219,7 +1263,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(ThrowStatement node) {
     	Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         exp.accept(this);
         return false;
     }
@@ -1227,7 +1271,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(TryStatement node) {
     	List<?> resources = node.resources();
-    	pushNode(node, "try:" + resources.toString());
+    	pushNode(node, "try:" + label(resources));
 		visitList(resources);
 
 		Statement body = node.getBody();
@@ -1251,7 +1295,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
 
     @Override
     public boolean visit(VariableDeclarationStatement node) {
-    	String nodeStr = node.toString();
+    	String nodeStr = label(node);
     	nodeStr = nodeStr.substring(0, nodeStr.length() - 1);
         pushNode(node, nodeStr);
         List<?> modifiers = node.modifiers();
@@ -1272,7 +1316,7 @@ public class ExpJdtVisitor extends CdJdtVisitor {
     @Override
     public boolean visit(WhileStatement node) {
     	Expression exp = node.getExpression();
-        pushNode(node, exp.getClass().getSimpleName() + COLON + exp.toString());
+        pushNode(node, exp.getClass().getSimpleName() + COLON + label(exp));
         exp.accept(this);
         
         Statement body = node.getBody();
@@ -0,0 +1,114 @@
+package edu.lu.uni.serval.gen.jdt.exp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.internal.core.dom.NaiveASTFlattener;
+
+import com.github.gumtreediff.tree.Label;
+
+/**
+ * Flattener producing the same strings as {@link ASTNode#toString()}, but remembering the
+ * string of every sub-node flattened along the way. Labelling a node, then its children
+ * (as the visitors do) only flattens each node once instead of once per ancestor.
+ * The strings of the sub-nodes are {@link Label}s sharing the string of the flattened node,
+ * so they are not copied unless requested.
+ * 
+ * Strings are only remembered and reused before the first line break of the current
+ * flattening: afterwards the output depends on the indentation of the enclosing nodes.
+ * 
+ * The internal NaiveASTFlattener of JDT is extended, as it is the one producing the strings
+ * of {@link ASTNode#toString()}: a copy based on the public ASTVisitor would drift from them
+ * on JDT upgrades. The JDT version is therefore pinned in the pom, TestSubtreeFlattener checks
+ * the strings, and {@link ExpJdtVisitor} falls back to toString() if the class no longer links.
+ */
+class SubtreeFlattener extends NaiveASTFlattener {
+	
+	private static final int REUSED = -1;
+
+	private final Map<ASTNode, Label> labels;
+	
+	private final Deque<Integer> starts = new ArrayDeque<>();
+	
+	private final List<ASTNode> flattened = new ArrayList<>();
+	
+	private int[] ranges = new int[32];
+	
+	private int scanned;
+	
+	private boolean multiLine;
+	
+	private SubtreeFlattener(Map<ASTNode, Label> labels) {
+		this.labels = labels;
+	}
+
+	/**
+	 * @param labels the labels of the nodes already flattened, completed with
+	 *     the sub-nodes of the given node.
+	 * @return the same string as node.toString().
+	 */
+	public static Label flatten(ASTNode node, Map<ASTNode, Label> labels) {
+		Label label = labels.get(node);
+		if (label == null) {
+			// A new flattener each time, as the indentation is not always restored.
+			SubtreeFlattener flattener = new SubtreeFlattener(labels);
+			node.accept(flattener);
+			label = flattener.recordLabels(node);
+		}
+		return label;
+	}
+	
+	private Label recordLabels(ASTNode node) {
+		String text = getResult();
+		for (int i = 0; i < flattened.size(); i ++)
+			labels.put(flattened.get(i), new Label(text, ranges[2 * i], ranges[2 * i + 1] - ranges[2 * i]));
+		Label label = labels.get(node);
+		return label != null ? label : new Label(text, 0, text.length());
+	}
+	
+	private boolean isSingleLine() {
+		if (!multiLine) {
+			for (int i = scanned; i < buffer.length(); i ++) {
+				if (buffer.charAt(i) == '\n') {
+					multiLine = true;
+					break;
+				}
+			}
+			scanned = buffer.length();
+		}
+		return !multiLine;
+	}
+	
+	@Override
+	public boolean preVisit2(ASTNode node) {
+		if (isSingleLine()) {
+			Label label = labels.get(node);
+			if (label != null) {
+				label.appendTo(buffer);
+				scanned = buffer.length();
+				starts.push(REUSED);
+				return false;
+			}
+		}
+		starts.push(buffer.length());
+		return true;
+	}
+	
+	@Override
+	public void postVisit(ASTNode node) {
+		int start = starts.pop();
+		if (start != REUSED && isSingleLine()) {
+			int i = 2 * flattened.size();
+			if (i == ranges.length)
+				ranges = Arrays.copyOf(ranges, 2 * i);
+			ranges[i] = start;
+			ranges[i + 1] = buffer.length();
+			flattened.add(node);
+		}
+	}
+}
@@ -21,32 +21,18 @@
 package edu.lu.uni.serval.gen.jdt.rawToken;
 
 import com.github.gumtreediff.gen.TreeGenerator;
+import com.github.gumtreediff.gen.jdt.JdtParsers;
 import com.github.gumtreediff.tree.TreeContext;
-import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 
 public abstract class AbstractRawTokenJdtTreeGenerator extends TreeGenerator {
 
-    private static char[] readerToCharArray(Reader r) throws IOException {
-        StringBuilder fileData = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(r)) {
-            char[] buf = new char[10];
-            int numRead = 0;
-            while ((numRead = br.read(buf)) != -1) {
-                String readData = String.valueOf(buf, 0, numRead);
-                fileData.append(readData);
-                buf = new char[1024];
-            }
-        }
-        return  fileData.toString().toCharArray();
-    }
-
     @Override
     public TreeContext generate(Reader r) throws IOException {
     	return generate(r, ASTParser.K_COMPILATION_UNIT);
@@ -54,19 +40,46 @@ public abstract class AbstractRawTokenJdtTreeGenerator extends TreeGenerator {
     
     @Override
     public TreeContext generate(Reader r, int astParserType) throws IOException {
-        ASTParser parser = ASTParser.newParser(AST.JLS8);
-        parser.setKind(astParserType);
-        Map<String, String> pOptions = JavaCore.getOptions();
-        pOptions.put(JavaCore.COMPILER_COMPLIANCE, JavaCore.VERSION_1_8);
-        pOptions.put(JavaCore.COMPILER_CODEGEN_TARGET_PLATFORM, JavaCore.VERSION_1_8);
-        pOptions.put(JavaCore.COMPILER_SOURCE, JavaCore.VERSION_1_8);
-        pOptions.put(JavaCore.COMPILER_DOC_COMMENT_SUPPORT, JavaCore.ENABLED);
-        parser.setCompilerOptions(pOptions);
-        parser.setSource(readerToCharArray(r));
+        return generate(JdtParsers.readFully(r), astParserType);
+    }
+
+    protected TreeContext generate(char[] source, int astParserType) {
         AbstractRawTokenJdtVisitor v = createVisitor();
-        parser.createAST(null).accept(v);
+        JdtParsers.parse(source, astParserType).accept(v);
         return v.getTreeContext();
     }
 
+    /**
+     * Parse the given file contents, without copying them.
+     */
+    public TreeContext generateFromChars(char[] source) {
+        return generateFromChars(source, ASTParser.K_COMPILATION_UNIT);
+    }
+
+    public TreeContext generateFromChars(char[] source, int astParserType) {
+        TreeContext ctx = generate(source, astParserType);
+        ctx.validate();
+        return ctx;
+    }
+
+    /**
+     * Parse the given files by batches of {@link JdtParsers#BATCH_SIZE} files.
+     */
+    @Override
+    public List<TreeContext> generateFromFiles(List<File> files) throws IOException {
+        return generateFromFiles(files, JdtParsers.BATCH_SIZE);
+    }
+
+    public List<TreeContext> generateFromFiles(List<File> files, int batchSize) throws IOException {
+        TreeContext[] trees = new TreeContext[files.size()];
+        JdtParsers.parseFiles(files, batchSize, (i, unit) -> {
+            AbstractRawTokenJdtVisitor v = createVisitor();
+            unit.accept(v);
+            trees[i] = v.getTreeContext();
+            trees[i].validate();
+        });
+        return Arrays.asList(trees);
+    }
+
     protected abstract AbstractRawTokenJdtVisitor createVisitor();
 }
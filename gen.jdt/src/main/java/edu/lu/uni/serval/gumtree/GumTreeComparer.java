@@ -1,10 +1,17 @@
 package edu.lu.uni.serval.gumtree;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
+import com.github.gumtreediff.matchers.IdenticalTreesMatcher;
 import com.github.gumtreediff.matchers.Mapping;
+import com.github.gumtreediff.utils.FastPaths;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.ParallelParsing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,34 +28,109 @@ public class GumTreeComparer {
 	
 	private static Logger log = LoggerFactory.getLogger(GumTreeComparer.class);
 
+	private List<String> unchangedMethods = new ArrayList<>();
+
 	public List<Action> compareTwoFilesWithGumTree(File prevFile, File revFile) {
+		if (FastPaths.haveSameContentQuietly(prevFile, revFile)) {
+			FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+			return new ArrayList<>();
+		}
 		// Generate GumTree.
-		ITree oldTree = null;
-		ITree newTree = null;
+		Pair<ITree, ITree> trees = generateTrees(prevFile, revFile);
+		if (trees != null) {
+			return compareTrees(trees.getFirst(), trees.getSecond());
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compare the given pairs of files. When parallel parsing is enabled (see {@link ParallelParsing}),
+	 * the files of the next pair are parsed while the current pair is matched.
+	 * @return the actions of each pair, in the same order, null for the pairs which could not be parsed.
+	 */
+	public List<List<Action>> compareFilePairsWithGumTree(List<Pair<File, File>> filePairs) {
+		return ParallelParsing.pipeline(filePairs, this::prepareComparison, Supplier::get);
+	}
+
+	private Supplier<List<Action>> prepareComparison(Pair<File, File> filePair) {
+		if (FastPaths.haveSameContentQuietly(filePair.getFirst(), filePair.getSecond())) {
+			FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+			return ArrayList::new;
+		}
+		Pair<ITree, ITree> trees = generateTrees(filePair.getFirst(), filePair.getSecond());
+		if (trees == null) {
+			return () -> null;
+		}
+		return () -> compareTrees(trees.getFirst(), trees.getSecond());
+	}
+
+	/**
+	 * Generate the trees of both files, concurrently when parallel parsing is enabled.
+	 * @return the trees, or null if one of the files could not be parsed.
+	 */
+	private Pair<ITree, ITree> generateTrees(File prevFile, File revFile) {
+		Pair<ITree, ITree> trees;
 		try {
-			oldTree = new GumTreeGenerator().generateITreeForJavaFile(prevFile, GumTreeType.EXP_JDT);
-			newTree = new GumTreeGenerator().generateITreeForJavaFile(revFile, GumTreeType.EXP_JDT);
+			trees = ParallelParsing.parseBoth(() -> generateTree(prevFile), () -> generateTree(revFile));
+		} catch (IOException e) {
+			return null; // Not thrown, failures are reported below.
+		}
+		if (trees.getFirst() == null) {
+			log.info("Null GumTree of Previous File: " + prevFile.getPath());
+		} else if (trees.getSecond() == null) {
+			log.info("Null GumTree of Revised File: " + revFile.getPath());
+		} else {
+			return trees;
+		}
+		return null;
+	}
+
+	private static ITree generateTree(File javaFile) {
+		try {
+			return new GumTreeGenerator().generateITreeForJavaFile(javaFile, GumTreeType.EXP_JDT);
 		} catch (Exception e) {
-			if (oldTree == null) {
-				log.info("Null GumTree of Previous File: " + prevFile.getPath());
-			} else if (newTree == null) {
-				log.info("Null GumTree of Revised File: " + revFile.getPath());
-			}
+			return null;
 		}
-		if (oldTree != null && newTree != null) {
-			Matcher m = Matchers.getInstance().getMatcher(oldTree, newTree);
-			m.match();
-			ActionGenerator ag = new ActionGenerator(oldTree, newTree, m.getMappings());
-			ag.generate();
-			List<Action> actions = ag.getActions(); // change actions from bug to patch
+	}
 
-			return actions;
+	/**
+	 * Compare two versions of a Java file, building trees only for the methods whose body changed.
+	 * The methods treated as unchanged are then available through {@link #getUnchangedMethods()}.
+	 */
+	public List<Action> compareChangedMethodsWithGumTree(File prevFile, File revFile) {
+		unchangedMethods = new ArrayList<>();
+		if (FastPaths.haveSameContentQuietly(prevFile, revFile)) {
+			FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+			return new ArrayList<>();
+		}
+		GumTreeGenerator.FocusedTrees trees = null;
+		try {
+			trees = new GumTreeGenerator().generateFocusedITrees(prevFile, revFile, GumTreeType.EXP_JDT);
+		} catch (Exception e) {
+			log.info("Null GumTree of files: " + prevFile.getPath() + ", " + revFile.getPath());
+		}
+		if (trees != null) {
+			unchangedMethods = trees.getUnchangedMethods();
+			log.debug("Unchanged methods: " + unchangedMethods);
+			return compareTrees(trees.getPrevTree(), trees.getRevTree());
 		}
 
 		return null;
 	}
 
+	/**
+	 * @return the methods treated as unchanged by the last call to {@link #compareChangedMethodsWithGumTree}.
+	 */
+	public List<String> getUnchangedMethods() {
+		return unchangedMethods;
+	}
+
 	public List<Action> compareCFilesWithGumTree(File prevFile, File revFile) {
+		if (FastPaths.haveSameContentQuietly(prevFile, revFile)) {
+			FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+			return new ArrayList<>();
+		}
 		// Generate GumTree.
 		ITree oldTree = null;
 		ITree newTree = null;
@@ -65,18 +147,30 @@ public class GumTreeComparer {
 			}
 		}
 		if (oldTree != null && newTree != null) {
-			Matcher m = Matchers.getInstance().getMatcher(oldTree, newTree);
-			m.match();
-			ActionGenerator ag = new ActionGenerator(oldTree, newTree, m.getMappings());
-			ag.generate();
-			List<Action> actions = ag.getActions(); // change actions from bug to patch
-
-			return actions;
+			return compareTrees(oldTree, newTree);
 		}
 
 		return null;
 	}
 
+	/**
+	 * Match the two trees and compute the edit script, unless they are isomorphic
+	 * (e.g. only whitespace or comments changed) in which case the script is empty.
+	 */
+	private List<Action> compareTrees(ITree oldTree, ITree newTree) {
+		if (IdenticalTreesMatcher.areIdentical(oldTree, newTree)) {
+			FastPaths.record(FastPaths.Kind.ISOMORPHIC_TREES);
+			return new ArrayList<>();
+		}
+		FastPaths.record(FastPaths.Kind.FULL_DIFF);
+		Matcher m = Matchers.getInstance().getMatcher(oldTree, newTree);
+		m.match();
+		ActionGenerator ag = new ActionGenerator(oldTree, newTree, m.getMappings());
+		ag.generate();
+		List<Action> actions = ag.getActions(); // change actions from bug to patch
+		if (log.isDebugEnabled())
+			log.debug(FastPaths.report());
 
-	
+		return actions;
+	}
 }
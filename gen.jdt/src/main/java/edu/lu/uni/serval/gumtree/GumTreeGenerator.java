@@ -1,12 +1,17 @@
 package edu.lu.uni.serval.gumtree;
 
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.util.List;
 
 import org.eclipse.jdt.core.dom.ASTParser;
 
+import com.github.gumtreediff.gen.jdt.JdtParsers;
 import com.github.gumtreediff.tree.ITree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.ParallelParsing;
 
 import edu.lu.uni.serval.gen.jdt.exp.ExpJdtTreeGenerator;
 import edu.lu.uni.serval.gen.jdt.rawToken.RawTokenJdtTreeGenerator;
@@ -66,6 +71,68 @@ public class GumTreeGenerator {
 		return gumTree;
 	}
 	
+	/**
+	 * Generate the trees of two versions of a Java file, only for the methods whose body changed.
+	 * The bodies of the other methods are left empty, they are listed by {@link MethodFocus#getUnchangedMethods()}.
+	 * Both versions are parsed concurrently when parallel parsing is enabled, see {@link ParallelParsing}.
+	 * @return the focused trees, or null if a file can not be parsed.
+	 * @throws IOException if a file can not be read.
+	 */
+	public FocusedTrees generateFocusedITrees(File prevFile, File revFile, GumTreeType type) throws IOException {
+		MethodFocus focus = new MethodFocus(readFully(prevFile), readFully(revFile));
+		Pair<TreeContext, TreeContext> trees = null;
+		switch (type) {
+		case EXP_JDT:
+			trees = ParallelParsing.parseBoth(() -> new ExpJdtTreeGenerator().generateFromChars(focus.getPrevSource()),
+					() -> new ExpJdtTreeGenerator().generateFromChars(focus.getRevSource()));
+			break;
+		case RAW_TOKEN:
+			trees = ParallelParsing.parseBoth(() -> new RawTokenJdtTreeGenerator().generateFromChars(focus.getPrevSource()),
+					() -> new RawTokenJdtTreeGenerator().generateFromChars(focus.getRevSource()));
+			break;
+		default:
+			break;
+		}
+
+		if (trees != null && trees.getFirst() != null && trees.getSecond() != null) {
+			return new FocusedTrees(trees.getFirst().getRoot(), trees.getSecond().getRoot(), focus.getUnchangedMethods());
+		}
+		return null;
+	}
+
+	private static char[] readFully(File file) throws IOException {
+		try (FileReader reader = new FileReader(file)) {
+			return JdtParsers.readFully(reader);
+		}
+	}
+
+	public static class FocusedTrees {
+		private final ITree prevTree;
+		private final ITree revTree;
+		private final List<String> unchangedMethods;
+
+		public FocusedTrees(ITree prevTree, ITree revTree, List<String> unchangedMethods) {
+			this.prevTree = prevTree;
+			this.revTree = revTree;
+			this.unchangedMethods = unchangedMethods;
+		}
+
+		public ITree getPrevTree() {
+			return prevTree;
+		}
+
+		public ITree getRevTree() {
+			return revTree;
+		}
+
+		/**
+		 * @return the methods whose body is identical in both versions and has not been turned into a tree.
+		 */
+		public List<String> getUnchangedMethods() {
+			return unchangedMethods;
+		}
+	}
+
 	public ITree generateITreeForCodeBlock(String codeBlock, GumTreeType type) {
 		ITree gumTree = null;
 		try {
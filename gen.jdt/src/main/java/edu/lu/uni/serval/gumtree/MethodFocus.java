@@ -0,0 +1,161 @@
+package edu.lu.uni.serval.gumtree;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
+import org.eclipse.jdt.core.dom.AnonymousClassDeclaration;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+
+import com.github.gumtreediff.gen.jdt.JdtParsers;
+
+/**
+ * Compares the method bodies of two versions of a Java file and blanks the bodies that did not change,
+ * so that trees are only built for the changed methods. The unchanged methods are kept as skeletons
+ * (signature and empty body) and the positions of every other character are preserved.
+ *
+ * Methods are identified by their enclosing types, name and parameter types; bodies are compared
+ * on their tokens from the JDT scanner, so that only whitespace outside of literals and comments is
+ * ignored.
+ */
+public class MethodFocus {
+
+	private final char[] prevSource;
+	private final char[] revSource;
+	private final List<String> unchangedMethods = new ArrayList<>();
+
+	public MethodFocus(char[] prevSource, char[] revSource) {
+		Map<String, Block> prevBodies = collectBodies(prevSource);
+		Map<String, Block> revBodies = collectBodies(revSource);
+		this.prevSource = prevSource.clone();
+		this.revSource = revSource.clone();
+		for (Map.Entry<String, Block> e : prevBodies.entrySet()) {
+			Block prevBody = e.getValue();
+			Block revBody = revBodies.get(e.getKey());
+			if (prevBody == null || revBody == null)
+				continue;
+			List<String> prevTokens = tokens(prevSource, prevBody);
+			if (prevTokens != null && prevTokens.equals(tokens(revSource, revBody))) {
+				unchangedMethods.add(e.getKey());
+				blank(this.prevSource, prevBody);
+				blank(this.revSource, revBody);
+			}
+		}
+	}
+
+	/**
+	 * @return the previous source, with the bodies of unchanged methods blanked.
+	 */
+	public char[] getPrevSource() {
+		return prevSource;
+	}
+
+	/**
+	 * @return the revised source, with the bodies of unchanged methods blanked.
+	 */
+	public char[] getRevSource() {
+		return revSource;
+	}
+
+	/**
+	 * @return the unchanged methods, as Type.Inner#name(ParamType, ...), in the order of the previous file.
+	 */
+	public List<String> getUnchangedMethods() {
+		return unchangedMethods;
+	}
+
+	/**
+	 * Bodies of the methods of the top level and member types, in source order. Methods with an ambiguous
+	 * key (e.g. in anonymous classes of field initializers) are mapped to null so they are never blanked.
+	 */
+	private static Map<String, Block> collectBodies(char[] source) {
+		CompilationUnit cu = (CompilationUnit) JdtParsers.parse(source, ASTParser.K_COMPILATION_UNIT);
+		Map<String, Block> bodies = new LinkedHashMap<>();
+		cu.accept(new ASTVisitor() {
+			private final List<String> types = new ArrayList<>();
+
+			@Override
+			public boolean preVisit2(ASTNode n) {
+				if (n instanceof AbstractTypeDeclaration)
+					types.add(((AbstractTypeDeclaration) n).getName().getIdentifier());
+				else if (n instanceof AnonymousClassDeclaration)
+					types.add("$");
+				return !(n instanceof Initializer);
+			}
+
+			@Override
+			public void postVisit(ASTNode n) {
+				if (n instanceof AbstractTypeDeclaration || n instanceof AnonymousClassDeclaration)
+					types.remove(types.size() - 1);
+			}
+
+			@Override
+			public boolean visit(MethodDeclaration m) {
+				if (m.getBody() != null) {
+					String key = key(types, m);
+					bodies.put(key, bodies.containsKey(key) ? null : m.getBody());
+				}
+				return false;
+			}
+		});
+		return bodies;
+	}
+
+	private static String key(List<String> types, MethodDeclaration m) {
+		StringBuilder b = new StringBuilder(String.join(".", types));
+		b.append('#').append(m.getName().getIdentifier()).append('(');
+		for (int i = 0; i < m.parameters().size(); i++) {
+			SingleVariableDeclaration p = (SingleVariableDeclaration) m.parameters().get(i);
+			if (i > 0)
+				b.append(", ");
+			b.append(p.getType());
+			for (int d = 0; d < p.getExtraDimensions(); d++)
+				b.append("[]");
+			if (p.isVarargs())
+				b.append("...");
+		}
+		return b.append(')').toString();
+	}
+
+	/**
+	 * @return the tokens of the body, comments included, with the exact text of literals, or null if
+	 *         the body can not be tokenized, in which case it is never considered unchanged.
+	 */
+	private static List<String> tokens(char[] source, Block body) {
+		IScanner scanner = ToolFactory.createScanner(true, false, false, JdtParsers.SOURCE_LEVEL);
+		scanner.setSource(source);
+		scanner.resetTo(body.getStartPosition(), body.getStartPosition() + body.getLength() - 1);
+		List<String> tokens = new ArrayList<>();
+		try {
+			while (scanner.getNextToken() != ITerminalSymbols.TokenNameEOF)
+				tokens.add(new String(scanner.getCurrentTokenSource()));
+		} catch (InvalidInputException e) {
+			return null;
+		}
+		return tokens;
+	}
+
+	/**
+	 * Replace the content of the body, between its braces, by spaces. Line breaks are kept so that
+	 * line numbers do not change either.
+	 */
+	private static void blank(char[] source, Block body) {
+		for (int i = body.getStartPosition() + 1; i < body.getStartPosition() + body.getLength() - 1; i++)
+			if (source[i] != '\n' && source[i] != '\r')
+				source[i] = ' ';
+	}
+
+}
@@ -20,11 +20,16 @@
 
 package com.github.gumtreediff.gen.jdt;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 
 import com.github.gumtreediff.tree.ITree;
+import com.github.gumtreediff.tree.TreeContext;
 import static org.junit.Assert.*;
 
 public class TestJdtGenerator {
@@ -54,4 +59,36 @@ public class TestJdtGenerator {
         assertEquals(24, tree.getSize());
     }
 
+    @Test
+    public void testGenerateFromChars() throws IOException {
+        StringBuilder input = new StringBuilder("public class Foo {\n");
+        for (int i = 0; i < 1000; i++)
+            input.append("    public int foo").append(i).append(";\n");
+        input.append("}\n");
+        ITree fromString = new JdtTreeGenerator().generateFromString(input.toString()).getRoot();
+        ITree fromChars = new JdtTreeGenerator().generateFromChars(input.toString().toCharArray()).getRoot();
+        assertEquals(15, fromChars.getType());
+        assertEquals(4 + 1000 * 5, fromChars.getSize());
+        assertTrue(fromString.isIsomorphicTo(fromChars));
+        assertEquals(input.length(), fromString.getEndPos());
+    }
+
+    @Test
+    public void testGenerateFromFiles() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            File f = File.createTempFile("Foo" + i, ".java");
+            f.deleteOnExit();
+            Files.write(f.toPath(), ("public class Foo" + i + " { int a" + i + " = " + i + "; }").getBytes());
+            files.add(f);
+        }
+        files.add(files.get(0));
+        List<TreeContext> trees = new JdtTreeGenerator().generateFromFiles(files, 2);
+        assertEquals(files.size(), trees.size());
+        for (int i = 0; i < files.size(); i++) {
+            ITree expected = new JdtTreeGenerator().generateFromFile(files.get(i)).getRoot();
+            assertTrue(expected.isIsomorphicTo(trees.get(i).getRoot()));
+        }
+    }
+
 }
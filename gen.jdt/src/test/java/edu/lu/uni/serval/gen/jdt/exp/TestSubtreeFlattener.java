@@ -0,0 +1,49 @@
+package edu.lu.uni.serval.gen.jdt.exp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.junit.Test;
+
+import com.github.gumtreediff.tree.Label;
+
+public class TestSubtreeFlattener {
+	
+	private static final String INPUT = "@Deprecated public class Foo<A> extends Bar implements Baz {\n"
+			+ "  @SuppressWarnings(\"all\") private int[] t = new int[] {1, 2};\n"
+			+ "  public void foo(final String s, int... v) throws Exception {\n"
+			+ "    for (int i = 0, j = 1; i < t.length; i++, j--) { t[i] = (j + i) * foo(s.length(), t[0]); }\n"
+			+ "    list.stream().map(x -> { switch (x) { case 1: return \"a\" + x; default: return null; } })\n"
+			+ "        .forEach(new Consumer<String>() { public void accept(String o) { System.out.println(o); } });\n"
+			+ "    assert s != null : \"s\";\n"
+			+ "    try (Reader r = new StringReader(s)) { r.read(); } catch (IOException e) { throw e; }\n"
+			+ "  }\n"
+			+ "}\n";
+
+	@Test
+	public void testSameStringsAsToString() {
+		ASTParser parser = ASTParser.newParser(AST.JLS8);
+		parser.setSource(INPUT.toCharArray());
+		List<ASTNode> nodes = new ArrayList<>();
+		parser.createAST(null).accept(new ASTVisitor(true) {
+			@Override
+			public void preVisit(ASTNode node) {
+				nodes.add(node);
+			}
+		});
+		
+		// Labelled from the root to the leaves, as done by the visitors.
+		Map<ASTNode, Label> labels = new IdentityHashMap<>();
+		for (ASTNode node : nodes) {
+			assertEquals(node.toString(), SubtreeFlattener.flatten(node, labels).toString());
+		}
+	}
+}
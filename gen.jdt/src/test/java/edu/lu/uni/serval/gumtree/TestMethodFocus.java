@@ -0,0 +1,97 @@
+package edu.lu.uni.serval.gumtree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.tree.ITree;
+
+import edu.lu.uni.serval.gen.jdt.exp.ExpJdtTreeGenerator;
+import edu.lu.uni.serval.gumtree.GumTreeGenerator.GumTreeType;
+
+public class TestMethodFocus {
+
+	private static final String PREV = "public class Foo {\n"
+			+ "  int f = 1;\n"
+			+ "  public int a(int x) {\n"
+			+ "    return x + 1;\n"
+			+ "  }\n"
+			+ "  public void b(String[] s) { System.out.println(s); }\n"
+			+ "  class Inner { void c() {  int y = 2; } }\n"
+			+ "}\n";
+
+	private static final String REV = "public class Foo {\n"
+			+ "  int f = 1;\n"
+			+ "  public int a(int x) {\n"
+			+ "    return x + 2;\n"
+			+ "  }\n"
+			+ "  public void b(String[] s) {\n    System.out.println(s);\n  }\n"
+			+ "  class Inner { void c() { int y = 2; } }\n"
+			+ "}\n";
+
+	@Test
+	public void testUnchangedMethods() {
+		MethodFocus focus = new MethodFocus(PREV.toCharArray(), REV.toCharArray());
+		assertEquals(Arrays.asList("Foo#b(String[])", "Foo.Inner#c()"), focus.getUnchangedMethods());
+		assertEquals(PREV.length(), focus.getPrevSource().length);
+		assertEquals(REV.length(), focus.getRevSource().length);
+		String rev = new String(focus.getRevSource());
+		assertTrue(rev.contains("return x + 2;"));
+		assertTrue(rev.matches("(?s).*public void b\\(String\\[\\] s\\) \\{\n *\n  \\}.*"));
+		assertTrue(rev.matches("(?s).*void c\\(\\) \\{ *\\}.*"));
+	}
+
+	@Test
+	public void testChangedLiterals() {
+		String prev = "class Foo {\n"
+				+ "  String a() { return \"a  b\"; }\n"
+				+ "  char b() { return ' '; }\n"
+				+ "  String c() {  return  \"c\" ; }\n"
+				+ "}\n";
+		String rev = "class Foo {\n"
+				+ "  String a() { return \"a b\"; }\n"
+				+ "  char b() { return '\\t'; }\n"
+				+ "  String c() { return \"c\"; }\n"
+				+ "}\n";
+		MethodFocus focus = new MethodFocus(prev.toCharArray(), rev.toCharArray());
+		assertEquals(Arrays.asList("Foo#c()"), focus.getUnchangedMethods());
+		assertTrue(new String(focus.getRevSource()).contains("return \"a b\";"));
+		assertTrue(new String(focus.getPrevSource()).contains("return \"a  b\";"));
+	}
+
+	@Test
+	public void testFocusedTrees() throws IOException {
+		File prev = File.createTempFile("prev", ".java");
+		File rev = File.createTempFile("rev", ".java");
+		prev.deleteOnExit();
+		rev.deleteOnExit();
+		Files.write(prev.toPath(), PREV.getBytes());
+		Files.write(rev.toPath(), REV.getBytes());
+
+		GumTreeGenerator.FocusedTrees trees = new GumTreeGenerator().generateFocusedITrees(prev, rev, GumTreeType.EXP_JDT);
+		ITree full = new ExpJdtTreeGenerator().generateFromString(REV).getRoot();
+		assertTrue(trees.getRevTree().getSize() < full.getSize());
+		assertEquals(full.getEndPos(), trees.getRevTree().getEndPos());
+
+		GumTreeComparer comparer = new GumTreeComparer();
+		List<Action> actions = comparer.compareChangedMethodsWithGumTree(prev, rev);
+		assertEquals(2, comparer.getUnchangedMethods().size());
+		assertEquals(new GumTreeComparer().compareTwoFilesWithGumTree(prev, rev).toString(), actions.toString());
+	}
+
+	@Test(expected = IOException.class)
+	public void testFocusedTreesOfMissingFile() throws IOException {
+		File rev = File.createTempFile("rev", ".java");
+		rev.deleteOnExit();
+		new GumTreeGenerator().generateFocusedITrees(new File(rev.getPath() + ".missing"), rev, GumTreeType.EXP_JDT);
+	}
+
+}
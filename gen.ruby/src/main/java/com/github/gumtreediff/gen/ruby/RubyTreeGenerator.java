@@ -25,6 +25,7 @@ import com.github.gumtreediff.gen.Registry;
 import com.github.gumtreediff.gen.TreeGenerator;
 import com.github.gumtreediff.tree.ITree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.tree.TreeUtils;
 import org.jrubyparser.CompatVersion;
 import org.jrubyparser.Parser;
 import org.jrubyparser.ast.*;
@@ -41,28 +42,25 @@ public class RubyTreeGenerator extends TreeGenerator {
         CompatVersion version = CompatVersion.RUBY2_0;
         ParserConfiguration config = new ParserConfiguration(0, version);
         Node n = p.parse("<code>", r, config);
-        return extractTreeContext(new TreeContext(), n, null);
+        return extractTreeContext(new TreeContext(), n);
     }
 
-    private TreeContext extractTreeContext(TreeContext treeContext, Node node, ITree parent) {
+    private TreeContext extractTreeContext(TreeContext treeContext, Node root) {
+        TreeUtils.buildTree(treeContext, root, node -> createTree(treeContext, node), Node::childNodes);
+        return treeContext;
+    }
+
+    private static ITree createTree(TreeContext treeContext, Node node) {
         String typeLabel = node.getNodeType().name();
         int type = node.getNodeType().ordinal() + 1;
         String label = extractLabel(node);
         ITree tree = treeContext.createTree(type, label, typeLabel);
-        if (parent == null)
-            treeContext.setRoot(tree);
-        else
-            tree.setParentAndUpdateChildren(parent);
 
         int pos = node.getPosition().getStartOffset();
         int length = node.getPosition().getEndOffset() - node.getPosition().getStartOffset();
         tree.setPos(pos);
         tree.setLength(length);
-
-        for (Node childNode: node.childNodes())
-            extractTreeContext(treeContext, childNode, tree);
-
-        return treeContext;
+        return tree;
     }
 
     private static String extractLabel(Node node) {
@@ -23,6 +23,7 @@ import com.github.gumtreediff.gen.TreeGenerator;
 import com.github.gumtreediff.io.LineReader;
 import com.github.gumtreediff.tree.ITree;
 import com.github.gumtreediff.tree.TreeContext;
+import com.github.gumtreediff.utils.Cancellation;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
@@ -33,7 +34,6 @@ import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 import java.io.*;
 import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -386,34 +386,17 @@ public abstract class AbstractSrcmlTreeGenerator extends TreeGenerator {
         File f = dumpReaderInTempFile(r);
         ProcessBuilder b = new ProcessBuilder(getCommandLine(f.getAbsolutePath()));
         b.directory(f.getParentFile());
-        Process p = b.start();
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder buf = new StringBuilder();
-            String line = null;
-            while ((line = br.readLine()) != null){
-
-////                String e = "<else pos:line=\"[0-9]+\" pos:column=\"[0-9]+\">else\\W*<block type=\"pseudo\"><empty_stmt pos:line=\"[0-9]+\" pos:column=\"[0-9]+\">;<pos:position pos:line=\"[0-9]+\" pos:column=\"[0-9]+\"/></empty_stmt></block></else>";
-//                String e = "<else pos:line=\\\\\\\"[0-9]+\\\\\\\" pos:column=\\\\\\\"[0-9]+\\\\\\\">else\\\\W*<block type=\\\\\\\"pseudo\\\\\\\"><empty_stmt pos:line=\\\\\\\"[0-9]+\\\\\\\" pos:column=\\\\\\\"[0-9]+\\\\\\\">;<pos:position pos:line=\\\\\\\"[0-9]+\\\\\\\" pos:column=\\\\\\\"[0-9]+\\\\\\\"/></empty_stmt></block></else>";
-//                //<else pos:line="37" pos:column="4">else <block type="pseudo"><empty_stmt pos:line="37" pos:column="9">;<pos:position pos:line="37" pos:column="10"/></empty_stmt></block></else></if>
-//                line = line.replaceAll(e,"");
-//                String s = "<expr_stmt><pos:position pos:line=\"[0-9]+\" pos:column=\"[0-9]+\"/></expr_stmt>";
-//                line = line.replaceAll(s,"");
-                buf.append(line + System.lineSeparator());
-            }
-            p.waitFor();
+        try {
+            Process p = b.start();
+            String s = Cancellation.readOutput(p);
             if (p.exitValue() != 0)
-                throw new RuntimeException(buf.toString());
+                throw new RuntimeException(s);
             r.close();
-            p.destroy();
-            String s = buf.toString();
             String p1 = "<expr_stmt><pos:position pos:line=\"[0-9]+\" pos:column=\"[0-9]+\"/></expr_stmt>";
             String p2 = "<else pos:line=\"[0-9]+\" pos:column=\"[0-9]+\">else\\W*<block type=\"pseudo\"><empty_stmt pos:line=\"[0-9]+\" pos:column=\"[0-9]+\">;<pos:position pos:line=\"[0-9]+\" pos:column=\"[0-9]+\"/></empty_stmt></block></else>";
             s = s.replaceAll(p2,"");
             s = s.replaceAll(p1,"");
             return s;
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
         } finally {
             f.delete();
         }
@@ -2,17 +2,22 @@ package com.github.gumtreediff.gen.srcml;
 
 import com.github.gumtreediff.actions.ActionGenerator;
 import com.github.gumtreediff.actions.model.Action;
+import com.github.gumtreediff.matchers.IdenticalTreesMatcher;
 import com.github.gumtreediff.matchers.Matcher;
 import com.github.gumtreediff.matchers.Matchers;
 import com.github.gumtreediff.tree.ITree;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import com.github.gumtreediff.tree.TreeUtils;
+import com.github.gumtreediff.utils.FastPaths;
+import com.github.gumtreediff.utils.Pair;
+import com.github.gumtreediff.utils.ParallelParsing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,23 +26,23 @@ public class GumTreeCComparer {
     private static Logger log = LoggerFactory.getLogger(GumTreeCComparer.class);
 
     public List<Action> compareCFilesWithGumTree(File prevFile, File revFile, String srcmlPath) {
-        // Generate GumTree.
+        if (FastPaths.haveSameContentQuietly(prevFile, revFile)) {
+            FastPaths.record(FastPaths.Kind.IDENTICAL_CONTENT);
+            return new ArrayList<>();
+        }
+        // Generate GumTree, both files being parsed concurrently when parallel parsing is enabled.
         ITree oldTree = null;
         ITree newTree = null;
         try {
 //			oldTree = new GumTreeGenerator().generateITreeForCFileForCode(prevFile);
 //			newTree = new GumTreeGenerator().generateITreeForCFileForCode(revFile);
-			oldTree = new SrcmlCTreeGenerator(srcmlPath).generateFromFile(prevFile).getRoot();
-			newTree = new SrcmlCTreeGenerator(srcmlPath).generateFromFile(revFile).getRoot();
-        } catch (Exception e) {
-            if (oldTree == null) {
-                log.info("Null GumTree of Previous File: " + prevFile.getPath());
-                throw new NullPointerException(prevFile.getPath());
-            } else if (newTree == null) {
-                log.info("Null GumTree of Revised File: " + revFile.getPath());
-                throw new NullPointerException(revFile.getPath());
-            }
-
+            Pair<ITree, ITree> trees = ParallelParsing.parseBoth(
+                    () -> generateTree(prevFile, srcmlPath, "Previous"),
+                    () -> generateTree(revFile, srcmlPath, "Revised"));
+            oldTree = trees.getFirst();
+            newTree = trees.getSecond();
+        } catch (IOException e) {
+            // Not thrown, failures are reported by generateTree.
         }
 //
 //        if(checkTree(oldTree) || checkTree(newTree)){
@@ -46,6 +51,11 @@ public class GumTreeCComparer {
 //        }
 
         if (oldTree != null && newTree != null) {
+            if (IdenticalTreesMatcher.areIdentical(oldTree, newTree)) {
+                FastPaths.record(FastPaths.Kind.ISOMORPHIC_TREES);
+                return new ArrayList<>();
+            }
+            FastPaths.record(FastPaths.Kind.FULL_DIFF);
             Matcher m = Matchers.getInstance().getMatcher(oldTree, newTree);
             m.match();
             ActionGenerator ag = new ActionGenerator(oldTree, newTree, m.getMappings());
@@ -58,6 +68,15 @@ public class GumTreeCComparer {
         return null;
     }
 
+    private static ITree generateTree(File file, String srcmlPath, String version) {
+        try {
+            return new SrcmlCTreeGenerator(srcmlPath).generateFromFile(file).getRoot();
+        } catch (Exception e) {
+            log.info("Null GumTree of " + version + " File: " + file.getPath());
+            throw new NullPointerException(file.getPath());
+        }
+    }
+
     public boolean checkTree(ITree tree) {
         List<String> errorList = new ArrayList<>(Arrays.asList("[(57@@[(22@@)])]","[(55@@[(6@@)])]","[(9@@[(53@@)][(19@@)])]","[(19@@)]","[(146@@)]","[(6@@)]","[(56@@[(57@@[(22@@)])])]"));
         List<ITree> iTrees = TreeUtils.breadthFirst(tree);
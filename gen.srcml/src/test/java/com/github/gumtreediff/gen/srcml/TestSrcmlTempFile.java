@@ -0,0 +1,89 @@
+/*
+ * This file is part of GumTree.
+ *
+ * GumTree is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * GumTree is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with GumTree.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright 2016 Jean-Rémy Falleri <jr.falleri@gmail.com>
+ */
+
+package com.github.gumtreediff.gen.srcml;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+
+public class TestSrcmlTempFile {
+
+    private File input;
+
+    /**
+     * Runs the given shell script instead of srcML, with the temporary input file as $1.
+     */
+    private AbstractSrcmlTreeGenerator generator(String script) {
+        return new SrcmlCTreeGenerator("/bin/sh") {
+            @Override
+            public String[] getCommandLine(String file) {
+                input = new File(file);
+                Assert.assertTrue(input.exists());
+                return new String[]{getSRCML_CMD(), "-c", script, "sh", file};
+            }
+        };
+    }
+
+    @Before
+    public void checkShell() {
+        Assume.assumeTrue(new File("/bin/sh").canExecute());
+    }
+
+    @Test
+    public void testDeletedOnSuccess() throws IOException {
+        String output = generator("cat \"$1\"").readStandardOutput(new StringReader("int a;"));
+        Assert.assertEquals("int a;", output.trim());
+        Assert.assertFalse(input.exists());
+    }
+
+    @Test
+    public void testDeletedOnFailure() throws IOException {
+        try {
+            generator("echo error; exit 3").readStandardOutput(new StringReader("int a;"));
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("error", e.getMessage().trim());
+        }
+        Assert.assertFalse(input.exists());
+    }
+
+    @Test
+    public void testDeletedWhenNotStarted() {
+        AbstractSrcmlTreeGenerator g = new SrcmlCTreeGenerator("/nonexistent/src2srcml") {
+            @Override
+            public String[] getCommandLine(String file) {
+                input = new File(file);
+                return super.getCommandLine(file);
+            }
+        };
+        try {
+            g.readStandardOutput(new StringReader("int a;"));
+            Assert.fail();
+        } catch (IOException e) {
+            // The process could not be started.
+        }
+        Assert.assertFalse(input.exists());
+    }
+}